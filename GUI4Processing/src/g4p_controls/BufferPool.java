@@ -0,0 +1,184 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+
+package g4p_controls;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import processing.core.PApplet;
+import processing.core.PGraphicsJava2D;
+import processing.core.PImage;
+
+/**
+ * A pool of off-screen buffers for the controls in one window. <br>
+ * 
+ * When a control is disposed of, or its image is stored in a texture atlas, 
+ * its buffer is kept here so it can be reused by another control instead of
+ * creating a new one. Buffer sizes are rounded up to size classes so that 
+ * controls of similar sizes can share buffers, and a buffer is only reused 
+ * by the same type of control because controls change the buffer settings. 
+ * Reused buffers are cleared. <br>
+ * 
+ * The total size of the unused buffers is limited, when it is exceeded the 
+ * buffers that have been unused the longest are discarded. A limit of 0 
+ * turns pooling off. 
+ * 
+ * @author Peter Lager
+ *
+ */
+final class BufferPool {
+
+	/**
+	 * An unused buffer.
+	 */
+	private static final class Entry {
+		final Class<?> owner;
+		final PGraphicsJava2D pg;
+		final long bytes;
+
+		Entry(Class<?> owner, PGraphicsJava2D pg){
+			this.owner = owner;
+			this.pg = pg;
+			bytes = bytesUsed(pg);
+		}
+	}
+
+	private final PApplet app;
+	// Unused buffers, least recently released first
+	private final LinkedList<Entry> idle = new LinkedList<Entry>();
+	private long maxBytes = 0;
+	private long idleBytes = 0;
+
+	int nbrHits = 0, nbrMisses = 0, nbrEvicted = 0;
+
+	BufferPool(PApplet app){
+		this.app = app;
+	}
+
+	/**
+	 * Round a buffer dimension up to its size class. Classes are spaced so
+	 * that no more than a quarter of a buffer is unused.
+	 */
+	static int sizeClass(int size){
+		if(size <= 16)
+			return 16;
+		int step = Math.max(16, Integer.highestOneBit(size - 1) >> 2);
+		return ((size + step - 1) / step) * step;
+	}
+
+	/**
+	 * Estimate the memory used by a buffer (the image and, if loaded, the pixel array).
+	 */
+	static long bytesUsed(PImage pg){
+		long bytes = 4L * pg.width * pg.height;
+		return (pg.pixels == null) ? bytes : 2 * bytes;
+	}
+
+	/**
+	 * Get a buffer for a control. If pooling is turned off the buffer will be
+	 * exactly the size requested otherwise it may be larger.
+	 * 
+	 * @param owner the type of control that will use it
+	 * @param w minimum width
+	 * @param h minimum height
+	 * @return a clear buffer
+	 */
+	synchronized PGraphicsJava2D acquire(Class<?> owner, int w, int h){
+		if(maxBytes <= 0)
+			return (PGraphicsJava2D) app.createGraphics(w, h, PApplet.JAVA2D);
+		w = sizeClass(w);
+		h = sizeClass(h);
+		// Most recently released first
+		Iterator<Entry> iter = idle.descendingIterator();
+		while(iter.hasNext()){
+			Entry e = iter.next();
+			if(e.owner == owner && e.pg.width == w && e.pg.height == h){
+				iter.remove();
+				idleBytes -= e.bytes;
+				nbrHits++;
+				e.pg.beginDraw();
+				e.pg.clear();
+				e.pg.endDraw();
+				return e.pg;
+			}
+		}
+		nbrMisses++;
+		return (PGraphicsJava2D) app.createGraphics(w, h, PApplet.JAVA2D);
+	}
+
+	/**
+	 * Return a buffer that is no longer needed.
+	 * 
+	 * @param owner the type of control that used it
+	 * @param pg the buffer
+	 */
+	synchronized void release(Class<?> owner, PGraphicsJava2D pg){
+		if(pg == null)
+			return;
+		if(maxBytes <= 0 || pg.width != sizeClass(pg.width) || pg.height != sizeClass(pg.height)){
+			pg.dispose();
+			return;
+		}
+		Entry e = new Entry(owner, pg);
+		idle.addLast(e);
+		idleBytes += e.bytes;
+		trim();
+	}
+
+	/**
+	 * Set the maximum memory used by unused buffers.
+	 * @param bytes the limit, 0 turns pooling off
+	 */
+	synchronized void setMaxBytes(long bytes){
+		maxBytes = Math.max(0, bytes);
+		trim();
+	}
+
+	synchronized long getIdleBytes(){
+		return idleBytes;
+	}
+
+	/**
+	 * Discard the least recently used buffers until within the limit.
+	 */
+	private void trim(){
+		while(idleBytes > maxBytes && !idle.isEmpty()){
+			Entry e = idle.removeFirst();
+			idleBytes -= e.bytes;
+			e.pg.dispose();
+			nbrEvicted++;
+		}
+	}
+
+	/**
+	 * Discard all unused buffers.
+	 */
+	synchronized void clear(){
+		for(Entry e : idle)
+			e.pg.dispose();
+		idle.clear();
+		idleBytes = 0;
+	}
+}
@@ -97,6 +97,8 @@ public class G4P implements GConstants, PConstants {
 	static HashMap<PApplet, GWindowInfo> windows = new HashMap<PApplet, GWindowInfo>();
 	// Used to order controls
 	static GAbstractControl.Z_Order zorder = new GAbstractControl.Z_Order();
+	// Told when controls are added or removed
+	static GControlsListener controlsListener = null;
 
 	/* INTERNAL USE ONLY  Mouse over changer */
 	static boolean cursorChangeEnabled = true;
@@ -232,6 +234,349 @@ public class G4P implements GConstants, PConstants {
 			winfo.setAlpha(alpha);
 	}
 
+	/**
+	 * Turn mouse event coalescing on or off for the given PApplet. <br>
+	 * When on, consecutive MOVE or DRAG events received between frames are 
+	 * merged so the controls only see the latest mouse position once per 
+	 * frame. PRESS, RELEASE and CLICK events are never merged and keep their 
+	 * order, and a waiting MOVE or DRAG event is dispatched before any key 
+	 * event. <br>
+	 * The merged events are dispatched at the start of the G4P draw so this 
+	 * should not be used with sketches that call noLoop(). <br>
+	 * This is off by default.
+	 * 
+	 * @param app
+	 * @param coalesce true to merge mouse MOVE and DRAG events
+	 */
+	public static void setMouseCoalescing(PApplet app, boolean coalesce){
+		windowInfo(app).setMouseCoalescing(coalesce);
+	}
+
+	/**
+	 * Turn mouse event coalescing on or off for the given GWindow.
+	 * 
+	 * @param win
+	 * @param coalesce true to merge mouse MOVE and DRAG events
+	 * @see #setMouseCoalescing(PApplet, boolean)
+	 */
+	public static void setMouseCoalescing(GWindow win, boolean coalesce){
+		setMouseCoalescing(win.papplet, coalesce);
+	}
+
+	/**
+	 * Get the number of mouse MOVE and DRAG events that were merged 
+	 * with a later event during the last frame.
+	 * 
+	 * @param app
+	 * @return the number of events merged (0 if coalescing is off)
+	 */
+	public static int getNbrMouseEventsMerged(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.nbrMergedLastFrame;
+	}
+
+	/**
+	 * See if the GUI in a window was unchanged when G4P last drew it and has 
+	 * not changed since, i.e. no control has changed its appearance and no 
+	 * mouse or key input has arrived. <br>
+	 * Processing calls the sketch's draw() method, then handles mouse and key
+	 * events, then G4P draws the controls. So when called at the start of the 
+	 * sketch's draw() this describes the <b>previous</b> frame: if the GUI 
+	 * changed during the previous frame this returns false so the sketch clears 
+	 * the display and G4P redraws every control in this frame. <br>
+	 * A sketch that clears the background itself can use this to skip 
+	 * redrawing a frame, this should be used with setIdleFrameSkip. Input that
+	 * arrives after the sketch's draw() is drawn over the previous frame and
+	 * corrected in the next frame, use setRetainedLayer if that is a problem.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return true if the GUI is unchanged
+	 */
+	public static boolean isGuiUnchanged(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return winfo == null || !(winfo.changedLastDraw || winfo.isGuiChanged());
+	}
+
+	/**
+	 * If true G4P will not draw the controls when the GUI is unchanged. Only use 
+	 * this if the sketch does not clear the background when isGuiUnchanged()
+	 * is true, otherwise the controls will disappear. The controls are always 
+	 * drawn in the frame after a change because isGuiUnchanged() reports that 
+	 * change to the sketch at the start of that frame. <br>
+	 * This is off by default.
+	 * 
+	 * @param app the PApplet for the window
+	 * @param skip true to skip drawing unchanged frames
+	 */
+	public static void setIdleFrameSkip(PApplet app, boolean skip){
+		windowInfo(app).setSkipIdleFrames(skip);
+	}
+
+	/**
+	 * If true the controls are also drawn to an off-screen image the size of 
+	 * the window. When the GUI is unchanged this image is drawn instead of the 
+	 * individual controls. <br>
+	 * This is ignored for 3D renderers and while the sketch is recording. It 
+	 * does not change the texture atlas or buffer pool settings. <br>
+	 * This is off by default.
+	 * 
+	 * @param app the PApplet for the window
+	 * @param retain true to use a retained GUI layer
+	 */
+	public static void setRetainedLayer(PApplet app, boolean retain){
+		windowInfo(app).setRetainedLayer(retain);
+	}
+
+	/**
+	 * If true the images of all controls except text controls and drop lists
+	 * are packed into a few large shared images instead of each 
+	 * control keeping its own off-screen buffer. This reduces the memory used 
+	 * by GUIs with many controls. <br>
+	 * This is off by default.
+	 * 
+	 * @param app the PApplet for the window
+	 * @param use true to use a texture atlas
+	 */
+	public static void setBufferAtlas(PApplet app, boolean use){
+		windowInfo(app).setBufferAtlas(use);
+	}
+
+	/**
+	 * Get the fraction of the texture atlas that is being used by controls.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return a value in the range 0.0 to 1.0 (0 if the atlas is not used)
+	 */
+	public static float getAtlasOccupancy(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null || winfo.atlas == null) ? 0 : winfo.atlas.getOccupancy();
+	}
+
+	/**
+	 * Get the number of bytes saved by using the texture atlas compared with 
+	 * each control keeping its own off-screen buffer. This is the memory used 
+	 * by the buffers that have been stored in the atlas and released less the
+	 * memory used by the atlas, or 0 if the atlas uses more.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the bytes saved (0 if the atlas is not used)
+	 */
+	public static long getAtlasBytesSaved(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null || winfo.atlas == null) ? 0 : winfo.atlas.getBytesSaved();
+	}
+
+	/**
+	 * Set the maximum memory (in bytes) used to keep the off-screen buffers of 
+	 * disposed controls so they can be reused by new controls. When the limit is 
+	 * exceeded the buffers unused for the longest are discarded. <br>
+	 * Buffer sizes are rounded up when pooling is on so that controls of similar
+	 * sizes can share them. <br>
+	 * The default is 0 (no pooling).
+	 * 
+	 * @param app the PApplet for the window
+	 * @param maxBytes the memory limit, 0 turns pooling off
+	 */
+	public static void setBufferPoolSize(PApplet app, long maxBytes){
+		windowInfo(app).bufferPool.setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * Get the number of times a control's buffer was reused from the pool.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the number of pool hits
+	 */
+	public static int getBufferPoolHits(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.bufferPool.nbrHits;
+	}
+
+	/**
+	 * Get the number of times a new buffer had to be created while pooling was on.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the number of pool misses
+	 */
+	public static int getBufferPoolMisses(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.bufferPool.nbrMisses;
+	}
+
+	/**
+	 * Get the memory used by the unused buffers waiting in the pool.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the size of the pool in bytes
+	 */
+	public static long getBufferPoolBytes(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.bufferPool.getIdleBytes();
+	}
+
+	/**
+	 * Controls that have been hidden (made invisible or inside a collapsed panel)
+	 * for longer than this time will release their off-screen buffers. The 
+	 * buffer is recreated when the control is shown again. <br>
+	 * This does not apply to text controls and drop lists. <br>
+	 * The default is 0 (buffers are never released).
+	 * 
+	 * @param app the PApplet for the window
+	 * @param millis the time in milliseconds, 0 to keep buffers
+	 */
+	public static void setBufferReleaseDelay(PApplet app, int millis){
+		windowInfo(app).bufferReleaseDelay = Math.max(0, millis);
+	}
+
+	/**
+	 * Limit the time spent each frame redrawing the off-screen buffers of 
+	 * controls that have changed, e.g. after changing the colour scheme or 
+	 * alpha level of a large number of controls. <br>
+	 * When the budget is used up the remaining controls show their old image
+	 * and are updated over the next few frames. The control under the mouse, 
+	 * the control with focus and controls used in the last second are always 
+	 * updated. <br>
+	 * The default is 0 (no limit).
+	 * 
+	 * @param app the PApplet for the window
+	 * @param micros the time in microseconds, 0 for no limit
+	 */
+	public static void setBufferRefreshBudget(PApplet app, int micros){
+		windowInfo(app).refreshBudget = 1000L * Math.max(0, micros);
+	}
+
+	/**
+	 * Get the number of controls whose buffer refresh was deferred in the 
+	 * last frame because the refresh budget had been used up.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the number of controls waiting to be updated
+	 */
+	public static int getRefreshBacklog(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.nbrDeferredLastFrame;
+	}
+
+	/**
+	 * Get the total number of buffer refreshes that have been deferred because
+	 * the refresh budget had been used up.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the number of deferred refreshes
+	 */
+	public static long getNbrRefreshesDeferred(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.totalDeferred;
+	}
+
+	/**
+	 * If true the off-screen buffers of controls that have changed are redrawn
+	 * on worker threads (one per processor) before the controls are drawn. 
+	 * This speeds up changes that affect many controls at once e.g. changing 
+	 * the colour scheme. The controls are still drawn by the animation thread. <br>
+	 * The default is false.
+	 * 
+	 * @param app the PApplet for the window
+	 * @param parallel true to use worker threads
+	 */
+	public static void setParallelRefresh(PApplet app, boolean parallel){
+		windowInfo(app).parallelRefresh = parallel;
+	}
+
+	/**
+	 * Get the number of control buffers redrawn on worker threads in the
+	 * last frame.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the number of buffers
+	 */
+	public static int getNbrParallelRefreshes(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.nbrParallelLastFrame;
+	}
+
+	/**
+	 * Get the time spent updating control buffers in the last frame. This is
+	 * only measured when a refresh budget has been set or buffers are 
+	 * redrawn on worker threads.
+	 * 
+	 * @param app the PApplet for the window
+	 * @return the time in microseconds
+	 */
+	public static long getRefreshTime(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		return (winfo == null) ? 0 : winfo.refreshTimeLastFrame / 1000;
+	}
+
+	/**
+	 * Get the window info for a PApplet creating it if necessary.
+	 */
+	private static GWindowInfo windowInfo(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		if(winfo == null){
+			winfo = new GWindowInfo(app);
+			windows.put(app, winfo);
+		}
+		return winfo;
+	}
+
+	/**
+	 * Mark a number of controls for disposal. The controls are removed together
+	 * at the end of the current frame. <br>
+	 * This is the same as calling markForDisposal() on each control.
+	 * 
+	 * @param controls the controls to dispose of
+	 */
+	public static void removeControls(GAbstractControl... controls){
+		for(GAbstractControl control : controls)
+			if(control != null)
+				control.markForDisposal();
+	}
+
+	/**
+	 * Dispose of all the controls in a window. The controls are removed together
+	 * at the end of the current frame.
+	 * 
+	 * @param app the PApplet for the window
+	 */
+	public static void disposeWindowContents(PApplet app){
+		GWindowInfo winfo = windows.get(app);
+		if(winfo != null)
+			winfo.removeAllControls();
+	}
+
+	/**
+	 * Dispose of all the controls in a GWindow. The controls are removed together
+	 * at the end of the current frame.
+	 * 
+	 * @param win the window
+	 */
+	public static void disposeWindowContents(GWindow win){
+		disposeWindowContents(win.papplet);
+	}
+
+	/**
+	 * Set the listener to be told when controls have been added to or removed 
+	 * from a window and how long it took.
+	 * 
+	 * @param listener the listener or null to remove the current one
+	 */
+	public static void setControlsListener(GControlsListener listener){
+		controlsListener = listener;
+	}
+
+	/**
+	 * Load the skins for GCustomSlider controls in a background thread so 
+	 * that creating the sliders later does not have to wait for the images. <br>
+	 * Skins are only loaded once and are shared by all sliders using them.
+	 * 
+	 * @param app the PApplet for the sketch
+	 * @param skins the names of the skins to load
+	 */
+	public static void preloadSliderSkins(PApplet app, String... skins){
+		SliderSkin.preload(app, skins);
+	}
+
 	/**
 	 * Register a GWindow object.
 	 * 
@@ -28,9 +28,8 @@ import java.awt.Color;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
 import java.lang.reflect.Method;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
 
 import processing.core.PApplet;
 import processing.core.PConstants;
@@ -101,7 +100,7 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	 * A list of child GComponents added to this component
 	 * Created and used by GPanel and GCombo classes
 	 */
-	protected LinkedList<GAbstractControl> children = null;
+	protected ZOrderList children = null;
 
 	protected int localColorScheme = G4P.globalColorScheme;
 	protected int[] palette = null;
@@ -121,11 +120,38 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	protected float rotAngle;
 	/** Introduced V3 to speed up AffineTransform operations */
 	protected double[] temp = new double[2];
+	/** The compound transformation (including parents) and its inverse */
+	private final AffineTransform worldTransform = new AffineTransform();
+	private final AffineTransform worldInverse = new AffineTransform();
+	/** Set to true when the position or rotation of this control or an ancestor changes */
+	private boolean transformInvalid = true;
+	private boolean invertible = false;
 
 	// New to V3 components have an image buffer which is only redrawn if 
 	// it has been invalidated
 	protected PGraphicsJava2D buffer = null;
 	protected boolean bufferInvalid = true;
+	// Set to true by controls that only use the buffer inside updateBuffer()
+	// (after calling acquireBuffer) so the buffer is only created when first 
+	// needed and can be released when stored in a texture atlas or hidden.
+	protected boolean bufferReleasable = false;
+	// The time (millis) this control was found to be hidden or -1 if shown
+	int hiddenSince = -1;
+	// Where this control's image is stored in the atlas (if any)
+	TextureAtlas.Slot atlasSlot = null;
+	// Set when the buffer is redrawn and used to count the frames it has
+	// been unchanged before storing it in the atlas
+	boolean bufferChanged = false;
+	int stableFrames = 0;
+	// The ImageManager cache keys of the images this control is using
+	ArrayList<String> imageKeys = null;
+	// The time (millis) the user last interacted with this control
+	int lastInteraction = -1;
+	// The window frame when the buffer refresh was first deferred or -1 if not deferred
+	int deferredSince = -1;
+	// Set to false by controls whose updateBuffer() must be called on the 
+	// animation thread, otherwise it may be called on a worker thread.
+	boolean parallelRefresh = true;
 
 	/** Whether to show background or not */
 	protected boolean opaque = false;
@@ -168,9 +194,14 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	protected Method eventHandlerMethod = null;
 	/* the name of the method to handle the event */ 
 	protected String eventHandlerMethodName;
+	/* Reused to pass parameters to the event handler method */
+	private final Object[] eventArgs = new Object[2];
 
 	int registeredMethods = 0;
 
+	/* Position of this control in the window's mouse index (-1 if not indexed) */
+	int gridIndex = -1;
+
 	/*
 	 * Specify the PImage that contains the image{s} to be used for the button's state. <br>
 	 * This image may be a composite of 1 to 3 images tiled horizontally. 
@@ -274,6 +305,7 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 			x = cx - halfWidth; y = cy - halfHeight;
 			break;
 		}
+		boundsChanged();
 	}
 	
 	/*
@@ -451,15 +483,68 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		return buffer;
 	}
 
+	/**
+	 * Create the off-screen buffer used to draw this control. Controls should
+	 * override this if the buffer needs any extra settings e.g. the font. <br>
+	 * If the window's buffer pool is in use the buffer may be larger than the 
+	 * control.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			return winfo.bufferPool.acquire(getClass(), (int)width, (int)height);
+		return (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
+	}
+
+	/**
+	 * Make sure there is an off-screen buffer to draw into. This should be 
+	 * called at the start of updateBuffer() because the buffer is released
+	 * when the control's image is stored in a texture atlas.
+	 */
+	protected void acquireBuffer(){
+		if(buffer == null)
+			buffer = createBuffer();
+		bufferChanged = true;
+	}
+
+	/**
+	 * Draw the control's image at the origin. <br>
+	 * If the window is using a texture atlas and the control's buffer has been
+	 * stored there and released the image is drawn from the atlas.
+	 */
+	protected void drawBuffer(){
+		if(bufferReleasable && buffer == null && atlasSlot != null){
+			GWindowInfo winfo = G4P.windows.get(winApp);
+			if(winfo != null && winfo.atlas != null){
+				atlasSlot.draw(winApp, 0, 0);
+				return;
+			}
+		}
+		if(buffer == null){
+			bufferInvalid = true;
+			updateBuffer();
+		}
+		if(buffer == null)
+			return;
+		if(buffer.width == (int)width && buffer.height == (int)height)
+			winApp.image(buffer, 0, 0);
+		else
+			winApp.image(buffer, 0, 0, (int)width, (int)height, 0, 0, (int)width, (int)height);
+	}
+
 	/**
 	 * This method should be used sparingly since it is heavy on resources.
 	 * 
 	 * @return a PGraphics object showing current state of the control (ignoring rotation)
 	 */
 	public PGraphics getSnapshot(){
+		if(buffer == null && bufferReleasable){
+			bufferInvalid = true;
+			acquireBuffer();
+		}
 		if(buffer != null){
 			updateBuffer();
-			PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics(buffer.width, buffer.height, PApplet.JAVA2D);
+			PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
 			snap.beginDraw();
 			snap.image(buffer,0,0);
 			return snap;
@@ -473,6 +558,20 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	 */
 	protected void updateBuffer() {}
 	
+	/**
+	 * Update the buffer if invalid. If the window has a time budget for buffer 
+	 * refreshes and it has been used up this frame the update may be deferred 
+	 * and the old buffer drawn instead. Controls should call this instead of 
+	 * updateBuffer() in their draw() method.
+	 */
+	protected void refreshBuffer(){
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo == null || winfo.refreshBudget <= 0)
+			updateBuffer();
+		else
+			winfo.refreshBuffer(this);
+	}
+
 
 	/**
 	 * Attempt to create the default event handler for the component class. 
@@ -538,6 +637,30 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		}		
 	}
 
+	/**
+	 * Attempt to fire an event for this component. <br>
+	 * 
+	 * This is used by all the library controls and reuses the same parameter 
+	 * array for every event so does not create any objects. Child classes
+	 * that support typed listeners override this method.
+	 * 
+	 * @param source the control generating the event
+	 * @param event the event type
+	 */
+	protected void fireEvent(GAbstractControl source, GEvent event){
+		if(eventHandlerMethod != null){
+			eventArgs[0] = source;
+			eventArgs[1] = event;
+			try {
+				eventHandlerMethod.invoke(eventHandlerObject, eventArgs);
+			} catch (Exception e) {
+				GMessenger.message(EXCP_IN_HANDLER,  
+						new Object[] {eventHandlerObject, eventHandlerMethodName, e } );
+			}
+			eventArgs[0] = eventArgs[1] = null;
+		}		
+	}
+
 	/**
 	 * Set the rotation to apply when displaying this control. The center of 
 	 * rotation is determined by the control_mode attribute.
@@ -579,6 +702,7 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 			y = cy + (float)temp[1];  			// should this be minus?? I don't think so
 			break;
 		}		
+		boundsChanged();
 	}
 
 	/**
@@ -630,6 +754,7 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 			y = cy - height/2;
 			break;
 		}
+		boundsChanged();
 	}
 	
 	/**
@@ -709,6 +834,8 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		// If we are making it invisible and it has focus give up the focus
 		if(!visible && focusIsWith == this)
 			loseFocus(null);
+		if(this.visible != visible)
+			guiChanged();
 		this.visible = visible;
 		// Only available if 
 		available = visible;
@@ -843,6 +970,23 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		return (this == focusIsWith);
 	}
 
+	/**
+	 * Key events are only sent to the control with focus. A control that 
+	 * needs to see every key event for its window, whether or not it has 
+	 * focus, should call this method with true.
+	 * 
+	 * @param listen true to receive all key events for this window
+	 */
+	protected void setGlobalKeyListener(boolean listen){
+		if(listen)
+			registeredMethods |= (KEY_METHOD | KEY_GLOBAL_METHOD);
+		else
+			registeredMethods &= ~KEY_GLOBAL_METHOD;
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			winfo.invalidateCallbacks();
+	}
+
 	/**
 	 * Get the Z order value for the object with focus.
 	 */
@@ -910,12 +1054,15 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		c.setZ(z);
 		// Parent will now be responsible for drawing
 		c.registeredMethods &= (ALL_METHOD - DRAW_METHOD);
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			winfo.invalidateCallbacks();
 		if(children == null)
-			children = new LinkedList<GAbstractControl>();
-		children.addLast(c);
-		Collections.sort(children, new Z_Order());
+			children = new ZOrderList();
+		children.add(c);
 		// Does the control being added have to do anything extra
 		c.addToParent(this);
+		c.boundsChanged();
 	}
 
 	/**
@@ -987,6 +1134,164 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 		this.cursorOver = cursorOver;
 	}
 
+	/**
+	 * Used by the window to decide whether the GUI has changed since it was
+	 * last drawn. Controls that draw something other than their buffer should 
+	 * override this or call guiChanged() when their appearance changes.
+	 * 
+	 * @return true if this control needs drawing again
+	 */
+	protected boolean isDamaged(){
+		return bufferInvalid && isShown();
+	}
+
+	/**
+	 * See if this control can be seen, i.e. it and all its ancestors are visible
+	 * and no ancestor is hiding its children (e.g. a collapsed panel).
+	 * 
+	 * @return true if the control is shown on screen
+	 */
+	public boolean isShown(){
+		if(!visible)
+			return false;
+		for(GAbstractControl p = parent; p != null; p = p.parent)
+			if(!p.visible || !p.isShowingChildren())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Controls that can hide their children without making them invisible
+	 * should override this.
+	 * 
+	 * @return true if the children of this control are drawn
+	 */
+	protected boolean isShowingChildren(){
+		return true;
+	}
+
+	/**
+	 * Release the buffer (and any texture atlas slot) so it can be used by 
+	 * another control. It will be recreated next time the control is drawn.
+	 * 
+	 * @return true if anything was released
+	 */
+	boolean releaseBuffer(){
+		if(!bufferReleasable)
+			return false;
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		boolean released = false;
+		if(buffer != null){
+			if(winfo != null)
+				winfo.bufferPool.release(getClass(), buffer);
+			buffer = null;
+			released = true;
+		}
+		if(atlasSlot != null && winfo != null && winfo.atlas != null){
+			winfo.atlas.free(atlasSlot);
+			released = true;
+		}
+		if(released)
+			bufferInvalid = true;
+		return released;
+	}
+
+	/**
+	 * Copy the buffer into the window's texture atlas and release it. Controls
+	 * that keep images as well as the buffer should override this and call 
+	 * super so those images are released too.
+	 * 
+	 * @param winfo the window with the atlas
+	 */
+	void storeInAtlas(GWindowInfo winfo){
+		winfo.atlas.store(this, buffer);
+		winfo.bufferPool.release(getClass(), buffer);
+		buffer = null;
+	}
+
+	/**
+	 * Return every off-screen image used by this control to the window when 
+	 * the control is removed. Controls that keep images as well as the buffer 
+	 * must override this and call super.
+	 * 
+	 * @param winfo the window the control is being removed from
+	 */
+	void disposeBuffers(GWindowInfo winfo){
+		if(buffer != null){
+			winfo.bufferPool.release(getClass(), buffer);
+			buffer = null;
+		}
+		if(atlasSlot != null && winfo.atlas != null)
+			winfo.atlas.free(atlasSlot);
+	}
+
+	/**
+	 * Tell the window this control looks different even though its buffer
+	 * has not changed.
+	 */
+	protected void guiChanged(){
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			winfo.damaged = true;
+	}
+
+	/**
+	 * Used internally to tell the window that the position, size or rotation
+	 * of this control (or one of its ancestors) has changed so that the mouse
+	 * event index is rebuilt before it is next used. The cached transforms 
+	 * for this control and its descendants are also invalidated.
+	 */
+	protected void boundsChanged(){
+		invalidateTransform();
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			winfo.invalidateIndex();
+	}
+
+	/**
+	 * Mark the cached transforms of this control and all its descendants 
+	 * as invalid.
+	 */
+	private void invalidateTransform(){
+		transformInvalid = true;
+		if(children != null){
+			for(GAbstractControl c : children)
+				c.invalidateTransform();
+		}
+	}
+
+	/**
+	 * Recalculate the cached transform and its inverse if invalid.
+	 */
+	private void validateTransform(){
+		if(transformInvalid){
+			if(parent != null)
+				worldTransform.setTransform(parent.getWorldTransform());
+			else
+				worldTransform.setToIdentity();
+			worldTransform.translate(cx, cy);
+			worldTransform.rotate(rotAngle);
+			worldInverse.setTransform(worldTransform);
+			try {
+				worldInverse.invert();
+				invertible = true;
+			} catch (NoninvertibleTransformException e) {
+				invertible = false;
+			}
+			transformInvalid = false;
+		}
+	}
+
+	/**
+	 * Get the cached affine transformation that is the compound of all 
+	 * transformations including parents. <br>
+	 * The returned object must not be modified.
+	 */
+	AffineTransform getWorldTransform(){
+		validateTransform();
+		return worldTransform;
+	}
+
 	/**
 	 * Get an affine transformation that is the compound of all 
 	 * transformations including parents
@@ -1003,19 +1308,18 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	/**
 	 * This method takes a position px, py and calculates the equivalent
 	 * position [ox,oy] as if no transformations have taken place and
-	 * the origin is the top-left corner of the control.
+	 * the origin is the top-left corner of the control. <br>
+	 * Uses the cached inverse transform so does not create any objects.
 	 * @param px
 	 * @param py
 	 */
 	protected void calcTransformedOrigin(float px, float py){
-		AffineTransform aff = new AffineTransform();
-		aff = getTransform(aff);
-		temp[0] = px; temp[1] = py;
-		try {
-			aff.inverseTransform(temp, 0, temp, 0, 1);
+		validateTransform();
+		if(invertible){
+			temp[0] = px; temp[1] = py;
+			worldInverse.transform(temp, 0, temp, 0, 1);
 			ox = (float) temp[0] + halfWidth;
 			oy = (float) temp[1] + halfHeight;
-		} catch (NoninvertibleTransformException e) {
 		}
 	}
 	
@@ -1032,10 +1336,14 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 	 */
 	protected void setZ(int parentZ){
 		z += parentZ;
+		GWindowInfo winfo = G4P.windows.get(winApp);
+		if(winfo != null)
+			winfo.reorder(this);
 		if(children != null){
 			for(GAbstractControl c : children){
 				c.setZ(parentZ);
 			}
+			children.reorderAll();
 		}
 	}
 
@@ -1070,9 +1378,9 @@ public abstract class GAbstractControl implements PConstants, GConstants, GConst
 
 		public int compare(GAbstractControl c1, GAbstractControl c2) {
 			if(c1.z != c2.z)
-				return  new Integer(c1.z).compareTo( new Integer(c2.z));
-			else
-				return new Integer((int) -c1.y).compareTo(new Integer((int) -c2.y));
+				return (c1.z < c2.z) ? -1 : 1;
+			int y1 = (int) -c1.y, y2 = (int) -c2.y;
+			return (y1 < y2) ? -1 : (y1 == y2) ? 0 : 1;
 		}
 
 	} // end of comparator class
@@ -28,6 +28,7 @@ import g4p_controls.StyledString.TextLayoutInfo;
 
 import java.awt.Graphics2D;
 import java.awt.font.TextLayout;
+import java.lang.reflect.InvocationTargetException;
 import java.util.LinkedList;
 
 import processing.core.PApplet;
@@ -71,6 +72,9 @@ public class GButton extends GTextIconAlignBase {
 
 	// Only report CLICKED events
 	protected boolean reportAllButtonEvents = false;
+
+	// Typed alternative to the named event handler method
+	protected GButtonListener buttonListener = null;
 	
 	public GButton(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		this(theApplet, p0, p1, p2, p3, "");
@@ -79,9 +83,7 @@ public class GButton extends GTextIconAlignBase {
 	public GButton(PApplet theApplet, float p0, float p1, float p2, float p3, String text) {
 		super(theApplet, p0, p1, p2, p3);
 		// The image buffer is just for the button surface
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setFont(localFont);
+		bufferReleasable = true;
 		hotspots = new HotSpot[]{
 				new HSrect(1, 0, 0, width, height)		// control surface
 		};
@@ -97,6 +99,47 @@ public class GButton extends GTextIconAlignBase {
 		G4P.addControl(this);
 	}
 	
+	/**
+	 * Use a listener object to handle the events generated by this button
+	 * instead of a named method. This replaces any existing event handler.
+	 * 
+	 * @param listener the listener (null to remove)
+	 */
+	public void addEventHandler(GButtonListener listener){
+		buttonListener = listener;
+		eventHandlerObject = null;
+		eventHandlerMethod = null;
+		eventHandlerMethodName = "";
+	}
+
+	/**
+	 * Use a named method to handle the events generated by this button. This 
+	 * replaces any existing event handler including a listener object.
+	 * 
+	 * @param obj the object to handle the event
+	 * @param methodName the method to execute in the object handler class
+	 */
+	public void addEventHandler(Object obj, String methodName){
+		buttonListener = null;
+		super.addEventHandler(obj, methodName);
+	}
+
+	/**
+	 * Use the listener if there is one, otherwise the named method.
+	 */
+	protected void fireEvent(GAbstractControl source, GEvent event){
+		if(buttonListener != null){
+			try {
+				buttonListener.handleButtonEvents(this, event);
+			} catch (Exception e) {
+				GMessenger.message(EXCP_IN_HANDLER,  
+						new Object[] {buttonListener, "handleButtonEvents", new InvocationTargetException(e) } );
+			}
+		}
+		else
+			super.fireEvent(source, event);
+	}
+
 	/**
 	 * If the parameter is true all 3 event types are generated, if false
 	 * only CLICKED events are generated (default behaviour).
@@ -106,6 +149,19 @@ public class GButton extends GTextIconAlignBase {
 		reportAllButtonEvents = all;
 	}
 
+	/**
+	 * If true an image of the button is kept for each of the off, over and 
+	 * pressed states so moving the mouse over, or clicking on, the button 
+	 * does not need the button to be redrawn. The images are only redrawn if 
+	 * the text, font, icon or colour scheme is changed. <br>
+	 * This uses more memory so is off by default.
+	 * 
+	 * @param cache true to cache the button's state images
+	 */
+	public void setStateCaching(boolean cache){
+		setStateCache(cache ? 3 : 0);
+	}
+
 	/**
 	 * Enable or disable the ability of the component to generate mouse events.<br>
 	 * If the control is to be disabled when it is clicked then this will guarentee the
@@ -154,7 +210,7 @@ public class GButton extends GTextIconAlignBase {
 				takeFocus();
 				if(reportAllButtonEvents)
 					fireEvent(this, GEvent.PRESSED);
-				bufferInvalid = true;
+				stateChanged();
 			}
 			break;
 		case MouseEvent.CLICK:
@@ -163,7 +219,7 @@ public class GButton extends GTextIconAlignBase {
 			// would not get the Java MouseEvent.MOUSE_CLICKED event
 			if(focusIsWith == this){
 				status = OFF_CONTROL;
-				bufferInvalid = true;
+				stateChanged();
 				loseFocus(null);
 				dragging = false;
 				fireEvent(this, GEvent.CLICKED);
@@ -178,7 +234,7 @@ public class GButton extends GTextIconAlignBase {
 				dragging = false;
 				loseFocus(null);
 				status = OFF_CONTROL;
-				bufferInvalid = true;
+				stateChanged();
 			}
 			break;
 		case MouseEvent.MOVE:
@@ -189,7 +245,7 @@ public class GButton extends GTextIconAlignBase {
 			else
 				status = OFF_CONTROL;
 			if(currStatus != status)
-				bufferInvalid = true;
+				stateChanged();
 			break;
 		case MouseEvent.DRAG:
 			dragging = (focusIsWith == this);
@@ -197,11 +253,22 @@ public class GButton extends GTextIconAlignBase {
 		}
 	}
 	
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
+		updateLoadingIcon();
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -214,65 +281,77 @@ public class GButton extends GTextIconAlignBase {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();		
 		winApp.popStyle();
 	}
 	
 	protected void updateBuffer(){
-		if(bufferInvalid) {
-			Graphics2D g2d = buffer.g2;
-			// Get the latest lines of text
-			LinkedList<TextLayoutInfo> lines = stext.getLines(g2d);	
+		if(stateSurfaces != null){
+			if(useStateSurface(status))
+				drawSurface();
+		}
+		else if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
-			buffer.beginDraw();
-			// Back ground colour
-			switch(status){
-			case OVER_CONTROL:
-				buffer.background(palette[6]);
+			drawSurface();
+		}
+	}
+
+	/**
+	 * Draw the control into the current buffer.
+	 */
+	protected void drawSurface(){
+		Graphics2D g2d = buffer.g2;
+		// Get the latest lines of text
+		LinkedList<TextLayoutInfo> lines = stext.getLines(g2d);	
+		buffer.beginDraw();
+		// Back ground colour
+		switch(status){
+		case OVER_CONTROL:
+			buffer.background(palette[6]);
+			break;
+		case PRESS_CONTROL:
+			buffer.background(palette[14]);
+			break;
+		default:
+			buffer.background(palette[4]);
+		}
+		g2d.setColor(jpalette[3]);
+		g2d.setStroke(pen_1_0);
+		g2d.drawRect(0, 0, (int)width-1, (int)height-1);
+		// Calculate text and icon placement
+		calcAlignment();
+		// If there is an icon draw it
+		if(iconW != 0)
+			bicon[status].draw(buffer, siX, siY);
+		float wrapWidth = stext.getWrapWidth();
+		float sx = 0, tw = 0;
+		buffer.translate(stX, stY);
+		for(TextLayoutInfo lineInfo : lines){
+			TextLayout layout = lineInfo.layout;
+			buffer.translate(0, layout.getAscent());
+			switch(textAlignH){
+			case CENTER:
+				tw = layout.getVisibleAdvance();
+				tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
+				sx = (wrapWidth - tw)/2;
 				break;
-			case PRESS_CONTROL:
-				buffer.background(palette[14]);
+			case RIGHT:
+				tw = layout.getVisibleAdvance();
+				tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
+				sx = wrapWidth - tw;
 				break;
+			case LEFT:
+			case JUSTIFY:
 			default:
-				buffer.background(palette[4]);
+				sx = 0;		
 			}
-			g2d.setColor(jpalette[3]);
-			g2d.setStroke(pen_1_0);
-			g2d.drawRect(0, 0, (int)width-1, (int)height-1);
-			// Calculate text and icon placement
-			calcAlignment();
-			// If there is an icon draw it
-			if(iconW != 0)
-				buffer.image(bicon[status], siX, siY);
-			float wrapWidth = stext.getWrapWidth();
-			float sx = 0, tw = 0;
-			buffer.translate(stX, stY);
-			for(TextLayoutInfo lineInfo : lines){
-				TextLayout layout = lineInfo.layout;
-				buffer.translate(0, layout.getAscent());
-				switch(textAlignH){
-				case CENTER:
-					tw = layout.getVisibleAdvance();
-					tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
-					sx = (wrapWidth - tw)/2;
-					break;
-				case RIGHT:
-					tw = layout.getVisibleAdvance();
-					tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
-					sx = wrapWidth - tw;
-					break;
-				case LEFT:
-				case JUSTIFY:
-				default:
-					sx = 0;		
-				}
-				// display text
-				g2d.setColor(jpalette[2]);
-				lineInfo.layout.draw(g2d, sx, 0);
-				buffer.translate(0, layout.getDescent() + layout.getLeading());
-			}
-			buffer.endDraw();
-		}	
+			// display text
+			g2d.setColor(jpalette[2]);
+			lineInfo.layout.draw(g2d, sx, 0);
+			buffer.translate(0, layout.getDescent() + layout.getLeading());
+		}
+		buffer.endDraw();
 	}
 }
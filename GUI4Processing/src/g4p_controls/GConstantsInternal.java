@@ -43,7 +43,9 @@ interface GConstantsInternal {
 	int PRE_METHOD = 			0x00000004;
 	int KEY_METHOD = 			0x00000008;
 	int POST_METHOD = 			0x00000010;
-	int ALL_METHOD =			0x0000001f;
+	// Receive key events even without focus
+	int KEY_GLOBAL_METHOD = 	0x00000020;
+	int ALL_METHOD =			0x0000003f;
 
 	// ### Error MessageTypes ###
 	int RUNTIME_ERROR = 	0xf0000000;
@@ -0,0 +1,51 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+
+package g4p_controls;
+
+import processing.core.PApplet;
+
+/**
+ * Implement this to be told when G4P has added or removed controls for a
+ * window. <br>
+ * 
+ * Controls are added and removed in batches at the end of each frame and
+ * this is called once for each batch with the time taken.
+ * 
+ * @author Peter Lager
+ *
+ */
+public interface GControlsListener {
+
+	/**
+	 * Called after controls have been added to or removed from a window.
+	 * 
+	 * @param app the PApplet for the window
+	 * @param nbrAdded the number of controls added
+	 * @param nbrRemoved the number of controls removed
+	 * @param nanos the time taken in nanoseconds
+	 */
+	public void controlsUpdated(PApplet app, int nbrAdded, int nbrRemoved, long nanos);
+
+}
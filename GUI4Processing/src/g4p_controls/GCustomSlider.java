@@ -26,12 +26,9 @@ package g4p_controls;
 import g4p_controls.HotSpot.HSalpha;
 import g4p_controls.HotSpot.HSrect;
 
-import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.io.File;
 
 import processing.core.PApplet;
-import processing.core.PGraphics;
 import processing.core.PGraphicsJava2D;
 import processing.core.PImage;
 
@@ -88,6 +85,9 @@ public class GCustomSlider extends GLinearTrackControl {
 	protected PImage rightEnd;
 	protected PImage centre;
 
+	// The skin (shared with other sliders)
+	SliderSkin skin;
+
 	/**
 	 * Create a custom slider using the default skin.
 	 * 
@@ -116,11 +116,7 @@ public class GCustomSlider extends GLinearTrackControl {
 		skin = (skin == null) ? "grey_blue" : skin.trim();
 		setStyle(skin);
 
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-		buffer.g2.setFont(G4P.numericLabelFont);
-		buffer.imageMode(PApplet.CENTER);
+		bufferReleasable = true;
 		hotspots = new HotSpot[]{
 				new HSalpha(THUMB_SPOT, width/2 + (parametricPos - 0.5f) * trackLength, height/2, thumb, PApplet.CENTER),  // thumb
 				new HSrect(TRACK_SPOT, (width-trackLength)/2, (height-trackWidth)/2, trackLength, trackWidth),		// track
@@ -148,14 +144,18 @@ public class GCustomSlider extends GLinearTrackControl {
 	 * @param skin the name of the folder holding the graphics for this slider
 	 */
 	public void setStyle(String skin){
-		loadSkin(skin);
+		this.skin = SliderSkin.get(winApp, skin);
+		leftEnd = this.skin.leftEnd;
+		rightEnd = this.skin.rightEnd;
+		thumb = this.skin.thumb;
+		thumb_mouseover = this.skin.thumb_mouseover;
 		float maxEndLength = Math.max(leftEnd.width, rightEnd.width);
 		maxEndLength = Math.max(maxEndLength, 10); // make sure we have enough to show limits value
 		trackLength = Math.round(width - 2 * maxEndLength - TINSET);
 		trackDisplayLength = trackLength + 2 * Math.min(leftEnd.width, rightEnd.width);
-		trackWidth = centre.height;
+		trackWidth = this.skin.getTrackWidth();
 		trackOffset = calcTrackOffset();
-		extendCentreImage();
+		centre = this.skin.getCentre(winApp, (int)trackLength);
 		bufferInvalid = true;
 	}
 
@@ -176,208 +176,56 @@ public class GCustomSlider extends GLinearTrackControl {
 		hotspots[0].x = (width/2  + (parametricPos - 0.5f) * trackLength);
 	}
 
-	protected void updateBuffer(){
-		if(bufferInvalid) {
-			Graphics2D g2d = buffer.g2;
-			bufferInvalid = false;
-			buffer.beginDraw();
-
-			// Back ground colour
-			if(opaque == true)
-				buffer.background(palette[6]);
-			else
-				buffer.background(buffer.color(255,0));
-
-			// Draw track, thumb, ticks etc.
-			buffer.pushMatrix();
-			buffer.translate(width/2, height/2);
-			// draw ticks
-			if(showTicks){
-				float delta = 1.0f / (nbrTicks - 1);
-				for(int i = 0; i < nbrTicks; i++){
-					float tickx = Math.round((i * delta - 0.5f) * trackLength);
-					buffer.strokeWeight(2);
-					buffer.stroke(255);
-					buffer.line(tickx+1, -trackWidth, tickx+1, trackWidth);
-					buffer.strokeWeight(1.0f);
-					buffer.stroke(0);
-					buffer.line(tickx, -trackWidth, tickx, trackWidth);
-				}
-			}
-			buffer.image(centre,0,0);
-			buffer.image(leftEnd, -(trackLength + leftEnd.width)/2, 0);
-			buffer.image(rightEnd, (trackLength + rightEnd.width)/2, 0);
-			switch(status){
-			case OFF_CONTROL:
-				buffer.image(thumb,(parametricPos - 0.5f) * trackLength, 0);
-				break;
-			case OVER_CONTROL:
-			case PRESS_CONTROL:
-			case DRAG_CONTROL:
-				buffer.image(thumb_mouseover,(parametricPos - 0.5f) * trackLength, 0);
-				break;
-			}		
-			// Display slider values
-			g2d.setColor(jpalette[2]);
-			if(labels != null){
-				drawLabels();
-			}
-			else {
-
-				if(showLimits)
-					drawLimits();
-				if(showValue)
-					drawValue();
-			}
-			buffer.popMatrix();
-			buffer.endDraw();
-		}
-	}
-
-	private void extendCentreImage(){
-		int tl = (int)trackLength;
-		PGraphics pg = winApp.createGraphics(tl, centre.height, JAVA2D);
-		int rem = tl % centre.width;
-		int n = tl / centre.width;
-		n = (rem == 0) ? n : n + 1;
-		int px = (tl - centre.width * n)/2;
-		pg.beginDraw();
-		pg.background(winApp.color(255,0));
-		pg.imageMode(CORNER);
-
-		while(px < tl){
-			pg.image(centre, px, 0);
-			px += centre.width;
-		}
-
-		pg.endDraw();
-		centre = pg;
-	}
-
 	/**
-	 * Load a skin
-	 * @param style
+	 * Create the off-screen buffer with the settings this control needs.
 	 */
-	private void loadSkin(String style){
-		// Remember the skin we want to use
-		String style_used = style;
-		boolean found = false;
-		// First check for user defined skin
-		// See if we are running in a browser or running locally
-		if(winApp.sketchPath("").length() == 0)
-			found = loadSkin_AppletInBrowser(style);	// browser
-		else
-			found = loadStyle_FromSketch(style);		// local
-		// If not found load it from the library
-		if(!found)
-			style_used = loadStyle_FromG4P(style);
-		// See if we have had to use a different skin. If true then 
-		// the original skin could not be found so say so 
-		if(!style.equalsIgnoreCase(style_used))
-			System.out.println("Unable to load the skin " + style + " using default '" + DEFAULT_SLIDER_STYLE + "' style instead");
-	}
-
-	/**
-	 * If no user defined skin has been specified then load a style from the G4P library.
-	 * If the style does not exist it will use the default style.
-	 * @param style
-	 */
-	private String loadStyle_FromG4P(String style) {
-		boolean found = (SLIDER_STYLES.indexOf("|"+style+"|") >= 0);
-		// If not found use the default grey_blue
-		if(!found)
-			style = DEFAULT_SLIDER_STYLE;
-
-		// All the library styles use png graphics
-		leftEnd = winApp.loadImage(style + "/end_left.png");
-		rightEnd = winApp.loadImage(style + "/end_right.png");
-		thumb = winApp.loadImage(style +"/handle.png");
-		thumb_mouseover = winApp.loadImage(style +"/handle_mouseover.png");
-		//	will be stretched before use
-		centre = winApp.loadImage(style + "/centre.png");
-
-		return style;	
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		pg.g2.setFont(G4P.numericLabelFont);
+		pg.imageMode(PApplet.CENTER);
+		return pg;
 	}
 
-	/**
-	 * Load a skin when run as an application or run locally.
-	 * 
-	 * @param styleFolder
-	 * @param style
-	 * @return true if the style loaded successfully
-	 */
-	private boolean loadStyle_FromSketch(String style) {
-		// First attempt to locate the style inside the sketch or sketch data folders
-		File styleFolder = new File(winApp.dataPath(style));
-		if(!styleFolder.exists())
-			styleFolder = new File(winApp.sketchPath(style));
-		// If the style is in the sketch then attempt to load the style
-		// and if successful we are done
-		if(!styleFolder.exists())
-			return false;
-
-		int fcount = 0;
-		String[] names = new String[] { "centre.", "end_left.", "end_right.", "handle.", "handle_mouseover." };
-		PImage[] images = new PImage[names.length];
-		File[] fileList = styleFolder.listFiles();
-		for(int i = 0; i < names.length; i++){
-			for(File f : fileList){
-				String filename = f.getName();
-				if(filename.startsWith(names[i])){
-					images[i] = winApp.loadImage(style + "/" + filename);
-					fcount ++;
-				}
+	protected void drawTrackBack(PGraphicsJava2D pg){
+		// Back ground colour
+		if(opaque == true)
+			pg.background(palette[6]);
+		else
+			pg.background(pg.color(255,0));
+		pg.pushMatrix();
+		pg.translate(width/2, height/2);
+		// draw ticks
+		if(showTicks){
+			float delta = 1.0f / (nbrTicks - 1);
+			for(int i = 0; i < nbrTicks; i++){
+				float tickx = Math.round((i * delta - 0.5f) * trackLength);
+				pg.strokeWeight(2);
+				pg.stroke(255);
+				pg.line(tickx+1, -trackWidth, tickx+1, trackWidth);
+				pg.strokeWeight(1.0f);
+				pg.stroke(0);
+				pg.line(tickx, -trackWidth, tickx, trackWidth);
 			}
 		}
-		if(fcount != names.length)
-			return false;
-
-		centre = images[0];
-		leftEnd = images[1];
-		rightEnd = images[2];
-		thumb = images[3];
-		thumb_mouseover = images[4];
-		return true;		
+		pg.image(centre,0,0);
+		pg.image(leftEnd, -(trackLength + leftEnd.width)/2, 0);
+		pg.image(rightEnd, (trackLength + rightEnd.width)/2, 0);
+		pg.popMatrix();
 	}
 
-	/**
-	 * Load a skin when run as an applet inside a browser.
-	 * 
-	 * Note: sketchPath() is null when inside a browswer.
-	 * 
-	 * @param style
-	 * @return true if the style loaded successfully
-	 */
-	private boolean loadSkin_AppletInBrowser(String style){
-		leftEnd = winApp.loadImage(style + "/end_left.png");
-		if(leftEnd == null)
-			leftEnd = winApp.loadImage(style + "/end_left.jpg");
-		rightEnd = winApp.loadImage(style + "/end_right.png");
-		if(rightEnd == null)
-			rightEnd = winApp.loadImage(style + "/end_right.jpg");
-		thumb = winApp.loadImage(style +"/handle.png");
-		if(thumb == null)
-			thumb = winApp.loadImage(style +"/handle.jpg");
-		thumb_mouseover = winApp.loadImage(style +"/handle_mouseover.png");
-		if(thumb_mouseover == null)
-			thumb_mouseover = winApp.loadImage(style +"/handle_mouseover.jpg");
-		//	will be stretched before use
-		centre = winApp.loadImage(style + "/centre.png");
-		if(centre == null)
-			centre = winApp.loadImage(style + "/centre.jpg");
-
-		boolean found = !(leftEnd == null || rightEnd == null || thumb == null || thumb_mouseover == null || centre == null);
-
-		// See if we have problems with the skin files
-		if(!found){
-			System.out.println("Unable to load the skin " + style + " check the ");
-			System.out.println("skin name used and ensure all the image files are present.");
-			System.out.println("Reverting to default 'grey_blue' style");
-			loadSkin("grey_blue");
-		}
-		return found;
+	protected void drawThumb(PGraphicsJava2D pg){
+		switch(status){
+		case OFF_CONTROL:
+			pg.image(thumb,(parametricPos - 0.5f) * trackLength, 0);
+			break;
+		case OVER_CONTROL:
+		case PRESS_CONTROL:
+		case DRAG_CONTROL:
+			pg.image(thumb_mouseover,(parametricPos - 0.5f) * trackLength, 0);
+			break;
+		}		
 	}
 
-
-
 }
@@ -28,7 +28,6 @@ import g4p_controls.HotSpot.HSrect;
 import java.awt.Graphics2D;
 import java.awt.font.TextLayout;
 import java.util.ArrayList;
-import java.util.LinkedList;
 
 import processing.core.PApplet;
 import processing.core.PGraphicsJava2D;
@@ -111,13 +110,12 @@ public class GDropList extends GTextBase {
 	 */
 	public GDropList(PApplet theApplet, float p0, float p1, float p2, float p3, int dropListMaxSize) {
 		super(theApplet, p0, p1, p2, p3);
-		children = new LinkedList<GAbstractControl>();
+		children = new ZOrderList();
 		this.dropListMaxSize = Math.max(dropListMaxSize, 3);
 		itemHeight = height / (dropListMaxSize + 1); // make allowance for selected text at top
 
 		// The image buffer is just for the typing area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
+		buffer = createBuffer();
 
 		G4P.pushStyle();
 		G4P.showMessages = false;
@@ -297,9 +295,19 @@ public class GDropList extends GTextBase {
 		}
 	}
 
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
-		updateBuffer();
+		refreshBuffer();
 
 		winApp.pushStyle();
 		winApp.pushMatrix();
@@ -314,7 +322,7 @@ public class GDropList extends GTextBase {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);
+		drawBuffer();
 
 		winApp.popMatrix();
 
@@ -83,6 +83,11 @@ public abstract class GEditableTextControl extends GTextBase {
 	/* Is the component enabled to generate mouse and keyboard events */
 	boolean textEditEnabled = true;
 
+	// Time (nanoseconds) of the oldest key event not yet shown in the buffer
+	protected long keyEventTime = 0;
+	// Time (nanoseconds) between the last key event and the buffer being updated
+	protected long keyLatency = -1;
+
 	public GEditableTextControl(PApplet theApplet, float p0, float p1, float p2, float p3, int scrollbars) {
 		super(theApplet, p0, p1, p2, p3);
 		scrollbarPolicy = scrollbars;
@@ -449,6 +454,8 @@ public abstract class GEditableTextControl extends GTextBase {
 	public void keyEvent(KeyEvent e) {
 		if(!visible  || !enabled || !textEditEnabled || !available) return;
 		if(focusIsWith == this && endTLHI != null){
+			if(keyEventTime == 0)
+				keyEventTime = System.nanoTime();
 			char keyChar = e.getKey();
 			int keyCode = e.getKeyCode();
 			int keyID = e.getAction();
@@ -495,6 +502,27 @@ public abstract class GEditableTextControl extends GTextBase {
 		}
 	}
 
+	/**
+	 * Called at the end of updateBuffer to record how long it took for a 
+	 * key event to be shown in the buffer.
+	 */
+	protected void keyEventShown(){
+		if(keyEventTime != 0){
+			keyLatency = System.nanoTime() - keyEventTime;
+			keyEventTime = 0;
+		}
+	}
+
+	/**
+	 * Get the time between the last key event being received and the text
+	 * display being updated to show it.
+	 * 
+	 * @return time in nanoseconds or -1 if no key events have been processed
+	 */
+	public long getKeyLatency(){
+		return keyLatency;
+	}
+
 	// Enable polymorphism. 
 	protected void keyPressedProcess(int keyCode, char keyChar, boolean shiftDown, boolean ctrlDown) { }
 
@@ -564,6 +592,8 @@ public abstract class GEditableTextControl extends GTextBase {
 	 */
 	public void flashCaret(GTimer timer){
 		showCaret = !showCaret;
+		if(focusIsWith == this)
+			guiChanged();
 	}
 
 	/**
@@ -79,6 +79,8 @@ public class GImageButton extends GAbstractControl {
 	
 	protected PImage[] bimage = null;
 	protected PImage mask = null;
+	// The image files being loaded in the background (if any)
+	private String[] loadingFiles = null;
 
 	protected int status;
 	protected boolean reportAllButtonEvents = false;
@@ -148,34 +150,34 @@ public class GImageButton extends GAbstractControl {
 		// Make sure we have an array of filenames
 		if(fnames == null || fnames.length == 0)
 			fnames = new String[] { "err0.png", "err1.png", "err2.png" };
-		bimage = ImageManager.loadImage(winApp, fnames);
 		// There should be 3 images if not use as many as possible, 
 		// duplicating the last one if neccessary
-		if(bimage.length != 3){
-			PImage[] temp = new PImage[3];
+		if(fnames.length != 3){
+			String[] temp = new String[3];
 			for(int i = 0; i < 3; i++)
-				temp[i] = bimage[Math.min(i, bimage.length - 1)];
-			bimage = temp;
+				temp[i] = fnames[Math.min(i, fnames.length - 1)];
+			fnames = temp;
 		}
 		// Get mask image if available
 		if(fnameMask != null)
 			mask = winApp.loadImage(fnameMask);
+		// If the button size is known and the images are still being loaded 
+		// in the background then don't wait, the button is not drawn until 
+		// they are ready
+		if(width > 0 && height > 0 && (ImageManager.isLoading(fnames[0]) 
+				|| ImageManager.isLoading(fnames[1]) || ImageManager.isLoading(fnames[2])))
+			loadingFiles = fnames;
+		else
+			loadImages(fnames);
 		//========================================================================
 
 		
 		//========================================================================
-		// Now decide whether to resize either the images or the button
-		if(width > 0 && height > 0){		// Resize images
-			for(int i = 0; i < bimage.length; i++){
-				if(bimage[i].width != width || bimage[i].height != height)
-					bimage[i].resize((int)width, (int)height);					
-			}
+		// Now decide whether to resize the mask
+		if(width > 0 && height > 0){		// Resize mask
 			if(mask != null && (mask.width != width || mask.height != height))
 				mask.resize((int)width, (int)height);
 		}
-		else {								// resize button
-			resize(bimage[0].width, bimage[0].height);
-		}
 		//========================================================================
 
 		
@@ -186,11 +188,6 @@ public class GImageButton extends GAbstractControl {
 					new HSmask(1, mask)
 			};
 		}
-		else {   // no mask then use alpha channel of the OFF image
-			hotspots = new HotSpot[]{
-					new HSalpha(1, 0, 0, bimage[0], PApplet.CORNER)
-			};
-		}
 		//========================================================================
 
 		z = Z_SLIPPY;
@@ -199,17 +196,86 @@ public class GImageButton extends GAbstractControl {
 				new Class<?>[]{ GImageButton.class, GEvent.class }, 
 				new String[]{ "button", "event" } 
 		);
+		// Drawn directly from the images so there is no buffer to update
+		parallelRefresh = false;
 		registeredMethods = DRAW_METHOD | MOUSE_METHOD;
 		cursorOver = HAND;
 		G4P.addControl(this);
 	}
 
 
+	/**
+	 * The button also needs to be drawn to find out if the images have 
+	 * finished loading.
+	 */
+	protected boolean isDamaged(){
+		return super.isDamaged() || (loadingFiles != null && isShown());
+	}
+
+	/**
+	 * The button is drawn directly from its images so there is no buffer to 
+	 * update. The bufferInvalid flag only shows that the button looks different
+	 * e.g. after a change of state or alpha level, so clear it once drawn.
+	 */
+	protected void updateBuffer(){
+		bufferInvalid = false;
+	}
+
+	/**
+	 * Enable or disable the ability of the component to generate mouse events.<br>
+	 * If the control is to be disabled when it is clicked then this will guarentee the
+	 * mouse off button image is used.
+	 * @param enable true to enable else false
+	 */
+	public void setEnabled(boolean enable){
+		super.setEnabled(enable);
+		if(!enable)
+			status = OFF_CONTROL;
+		bufferInvalid = true;
+	}
+
+	/**
+	 * Get the button images from the ImageManager. If the button has no size
+	 * then it is resized to match the images. If there is no mask then the 
+	 * alpha channel of the OFF image is used for the hotspot.
+	 * 
+	 * @param fnames the 3 image filenames
+	 */
+	private void loadImages(String[] fnames){
+		// The images are shared with other controls so if they are the wrong
+		// size we get resized copies
+		PImage[] images = new PImage[3];
+		for(int i = 0; i < images.length; i++){
+			if(width > 0 && height > 0)
+				images[i] = ImageManager.loadImage(this, fnames[i], (int)width, (int)height);
+			else
+				images[i] = ImageManager.loadImage(this, fnames[i]);
+		}
+		if(width <= 0 || height <= 0)		// resize button
+			resize(images[0].width, images[0].height);
+		if(mask == null){   // no mask then use alpha channel of the OFF image
+			hotspots = new HotSpot[]{
+					new HSalpha(1, 0, 0, images[0], PApplet.CORNER)
+			};
+		}
+		bimage = images;
+		loadingFiles = null;
+		bufferInvalid = true;
+	}
+
 	public void draw(){
 		if(!visible) return;
+		// Wait until the images have finished loading
+		if(loadingFiles != null){
+			for(String fname : loadingFiles)
+				if(ImageManager.isLoading(fname))
+					return;
+			loadImages(loadingFiles);
+			guiChanged();
+		}
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
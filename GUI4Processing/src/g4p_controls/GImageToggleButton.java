@@ -69,14 +69,13 @@ import processing.event.MouseEvent;
  */
 public class GImageToggleButton extends GAbstractControl {
 
-	private static PImage toggle = null;
 	private static final String TOGGLE = "toggle.png";
 	
 	protected int nbrStates = 2;
 	protected int stateValue = 0;
 
-	protected PImage[] offImage;
-	protected PImage[] overImage;
+	protected ImageTile[] offImage;
+	protected ImageTile[] overImage;
 
 	protected int status;
 	protected boolean reportAllButtonEvents = false;
@@ -139,6 +138,8 @@ public class GImageToggleButton extends GAbstractControl {
 
 	/**
 	 * Create an image-toggle-button. <br>
+	 * The size of the button comes from the pictures so if they are still 
+	 * being preloaded this waits for them to finish loading.
 	 * 
 	 * @param theApplet
 	 * @param p0 horizontal position of the control
@@ -152,20 +153,18 @@ public class GImageToggleButton extends GAbstractControl {
 		super(theApplet, p0, p1, 0, 0);
 		// Attempt to get off-control image data
 		PImage temp = null;
-		if(nbrCols < 1 || nbrRows < 1 || offPicture == null || null == (temp = ImageManager.loadImage(winApp, offPicture))){
+		if(nbrCols < 1 || nbrRows < 1 || offPicture == null || null == (temp = ImageManager.loadImage(this, offPicture))){
 			// Invalid data use default
 			nbrStates = 2;
-			if(toggle == null)
-				toggle = ImageManager.loadImage(winApp, TOGGLE);
-			offImage = ImageManager.makeTiles1D(winApp, toggle, 2, 1);
+			offImage = ImageManager.makeTileViews1D(ImageManager.loadImage(this, TOGGLE), 2, 1);
 		}
 		else {
 			// Off-control image data valid
 			nbrStates = nbrCols * nbrRows;
-			offImage = ImageManager.makeTiles1D(winApp, temp, nbrCols, nbrRows);
+			offImage = ImageManager.makeTileViews1D(temp, nbrCols, nbrRows);
 			// Now check for over-control image data
-			if(overPicture != null && null != (temp = ImageManager.loadImage(winApp, overPicture))){
-				overImage = ImageManager.makeTiles1D(winApp, temp, nbrCols, nbrRows);
+			if(overPicture != null && null != (temp = ImageManager.loadImage(this, overPicture))){
+				overImage = ImageManager.makeTileViews1D(temp, nbrCols, nbrRows);
 			}
 		}
 		// The control will always be resized to match the image size
@@ -185,16 +184,40 @@ public class GImageToggleButton extends GAbstractControl {
 				new Class<?>[]{ GImageToggleButton.class, GEvent.class }, 
 				new String[]{ "button", "event" } 
 		);
+		// Drawn directly from the images so there is no buffer to update
+		parallelRefresh = false;
 		registeredMethods = DRAW_METHOD | MOUSE_METHOD;
 		cursorOver = HAND;
 		G4P.addControl(this);
 	}
 
+	/**
+	 * The button is drawn directly from its images so there is no buffer to 
+	 * update. The bufferInvalid flag only shows that the button looks different
+	 * e.g. after a change of state or alpha level, so clear it once drawn.
+	 */
+	protected void updateBuffer(){
+		bufferInvalid = false;
+	}
+
+	/**
+	 * Enable or disable the ability of the component to generate mouse events.<br>
+	 * If the control is to be disabled when it is clicked then this will guarentee the
+	 * mouse off button image is used.
+	 * @param enable true to enable else false
+	 */
+	public void setEnabled(boolean enable){
+		super.setEnabled(enable);
+		if(!enable)
+			status = OFF_CONTROL;
+		bufferInvalid = true;
+	}
+
 	public void draw(){
 		if(!visible) return;
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -208,9 +231,9 @@ public class GImageToggleButton extends GAbstractControl {
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
 		if(status == OVER_CONTROL && overImage != null)
-			winApp.image(overImage[stateValue], 0, 0);
+			overImage[stateValue].draw(winApp, 0, 0);
 		else
-			winApp.image(offImage[stateValue], 0, 0);
+			offImage[stateValue].draw(winApp, 0, 0);
 
 		winApp.popMatrix();		
 		winApp.popStyle();
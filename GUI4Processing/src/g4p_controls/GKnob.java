@@ -26,6 +26,10 @@ package g4p_controls;
 import g4p_controls.HotSpot.HSarc;
 import g4p_controls.HotSpot.HScircle;
 
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+
 import processing.core.PApplet;
 import processing.core.PGraphicsJava2D;
 import processing.event.MouseEvent;
@@ -85,6 +89,9 @@ public class GKnob extends GValueControl {
 	//				parametricTarget 
 	protected float angleTarget, lastAngleTarget;
 
+	// The bezel, ticks and grip (may be shared with other knobs)
+	KnobFace face = null;
+
 	/**
 	 * Will create the a circular knob control that fits the rectangle define by
 	 * the values passed as parameters. <br>
@@ -108,7 +115,7 @@ public class GKnob extends GValueControl {
 		super(theApplet, p0, p1, p2, p3);
 		bezelRadius = Math.min(width, height) / 2 - 2;
 		setGripAmount(gripAmount);
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
+		bufferReleasable = true;
 		setTurnRange(startAng, endAng);
 		// valuePos and valueTarget will start at 0.5;
 		lastAngleTarget = angleTarget = scaleValueToAngle(parametricTarget);
@@ -339,7 +346,7 @@ public class GKnob extends GValueControl {
 	public void draw(){
 		if(!visible) return;
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -353,7 +360,7 @@ public class GKnob extends GValueControl {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 		// Value labels
 		if(children != null){
@@ -366,68 +373,31 @@ public class GKnob extends GValueControl {
 	}
 
 	protected void updateBuffer(){
-		double a, sina, cosa;
-		float tickLength;
 		if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
+			// Get the static parts of the knob
+			if(face == null || !face.matches(this))
+				face = KnobFace.get(this);
+			float anglePos = scaleValueToAngle(parametricPos);
 			buffer.beginDraw();
 			buffer.ellipseMode(PApplet.CENTER);
-			// Back ground colour
-			// Back ground colour
-			if(opaque == true)
-				buffer.background(palette[6]);
-			else
-				buffer.background(buffer.color(255,0));
+			buffer.background(buffer.color(255,0));
+			buffer.image(face.behind, 0, 0);
 			buffer.translate(width/2, height/2);
-			buffer.noStroke();
-			float anglePos = scaleValueToAngle(parametricPos);
-			if(bezelWidth > 0){
-				// Draw bezel, track,  ticks etc
+			// draw track?
+			if(bezelWidth > 0 && showTrack){
 				buffer.noStroke();
-				buffer.fill(palette[5]);
-				if(drawArcOnly)
-					buffer.arc(0,0,2*bezelRadius, 2*bezelRadius, PApplet.radians(startAng), PApplet.radians(endAng));
-				else
-					buffer.ellipse(0,0,2*bezelRadius, 2*bezelRadius);
-				// Since we have a bezel test for ticks
-				if(showTicks){
-					buffer.noFill();
-					buffer.strokeWeight(1.6f);
-					buffer.stroke(palette[3]);
-					float deltaA = (endAng - startAng)/(nbrTicks - 1);
-					for(int t = 0; t < nbrTicks; t++){
-						tickLength = gripRadius + ((t == 0 || t == nbrTicks - 1) ? bezelWidth : bezelWidth * 0.8f); 
-						a =  Math.toRadians(startAng + t * deltaA);
-						sina = Math.sin(a);
-						cosa = Math.cos(a);
-						buffer.line((float)(gripRadius * cosa), (float)(gripRadius * sina), (float)(tickLength * cosa), (float)(tickLength * sina));
-					}
-				}
-				// draw track?
-				if(showTrack){
-					buffer.noStroke();
-					buffer.fill(palette[14]);
-					buffer.arc(0,0, 2*(gripRadius + bezelWidth * 0.5f), 2*(gripRadius + bezelWidth * 0.5f), PApplet.radians(startAng), PApplet.radians(anglePos));					
-				}
+				buffer.fill(palette[14]);
+				buffer.arc(0,0, 2*(gripRadius + bezelWidth * 0.5f), 2*(gripRadius + bezelWidth * 0.5f), PApplet.radians(startAng), PApplet.radians(anglePos));					
 			}
-
-			// draw grip (inner) part of knob
-			buffer.strokeWeight(1.6f);
-			buffer.stroke(palette[2]); // was 14
-			buffer.fill(palette[2]);
-			if(drawArcOnly)
-				buffer.arc(0,0,2*gripRadius, 2*gripRadius, PApplet.radians(startAng), PApplet.radians(endAng));
-			else
-				buffer.ellipse(0,0,2*gripRadius, 2*gripRadius);
-
+			buffer.image(face.front, -width/2, -height/2);
 			// Draw needle
 			buffer.noFill();
 			buffer.stroke(palette[14]);
 			buffer.strokeWeight(3);
-			a = Math.toRadians(anglePos);
-			sina = Math.sin(a);
-			cosa = Math.cos(a);
-			buffer.line(0, 0, (float)(gripRadius * cosa), (float)(gripRadius * sina));
+			double a = Math.toRadians(anglePos);
+			buffer.line(0, 0, (float)(gripRadius * Math.cos(a)), (float)(gripRadius * Math.sin(a)));
 			buffer.endDraw();
 		}
 	}
@@ -566,4 +536,157 @@ public class GKnob extends GValueControl {
 			a += 360;
 		return a;	
 	}
+
+	/**
+	 * The parts of a knob that do not change with its value. These are drawn 
+	 * in two layers, the bezel and ticks behind the track and the grip in 
+	 * front of it, so only the track and needle are drawn when the value 
+	 * changes. <br>
+	 * 
+	 * Knobs with the same geometry and colours share the same layers.
+	 * 
+	 * @author Peter Lager
+	 */
+	static final class KnobFace {
+
+		// Faces already drawn, the map keys do not hold the layers
+		private static final HashMap<KnobFace, WeakReference<KnobFace>> faces = new HashMap<KnobFace, WeakReference<KnobFace>>();
+
+		final int width, height;
+		final float bezelRadius, gripRadius, startAng, endAng;
+		final int nbrTicks;
+		final boolean opaque, showTicks, drawArcOnly;
+		// Background, bezel, tick and grip colours
+		final int back, bezel, tick, grip;
+
+		PGraphicsJava2D behind, front;
+
+		private KnobFace(GKnob knob){
+			width = (int)knob.width;
+			height = (int)knob.height;
+			bezelRadius = knob.bezelRadius;
+			gripRadius = knob.gripRadius;
+			startAng = knob.startAng;
+			endAng = knob.endAng;
+			nbrTicks = knob.nbrTicks;
+			opaque = knob.opaque;
+			showTicks = knob.showTicks;
+			drawArcOnly = knob.drawArcOnly;
+			back = knob.palette[6];
+			bezel = knob.palette[5];
+			tick = knob.palette[3];
+			grip = knob.palette[2];
+		}
+
+		/**
+		 * Get the face for a knob, drawing it if no other knob is using it.
+		 */
+		static synchronized KnobFace get(GKnob knob){
+			KnobFace key = new KnobFace(knob);
+			WeakReference<KnobFace> ref = faces.get(key);
+			KnobFace face = (ref == null) ? null : ref.get();
+			if(face == null){
+				// Forget faces no longer used
+				Iterator<WeakReference<KnobFace>> iter = faces.values().iterator();
+				while(iter.hasNext())
+					if(iter.next().get() == null)
+						iter.remove();
+				face = new KnobFace(knob);
+				face.draw(knob.winApp);
+				faces.put(key, new WeakReference<KnobFace>(face));
+			}
+			return face;
+		}
+
+		/**
+		 * See if this face can be used by the knob.
+		 */
+		boolean matches(GKnob knob){
+			int[] p = knob.palette;
+			return width == (int)knob.width && height == (int)knob.height
+					&& bezelRadius == knob.bezelRadius && gripRadius == knob.gripRadius
+					&& startAng == knob.startAng && endAng == knob.endAng
+					&& nbrTicks == knob.nbrTicks && opaque == knob.opaque 
+					&& showTicks == knob.showTicks && drawArcOnly == knob.drawArcOnly
+					&& back == p[6] && bezel == p[5] && tick == p[3] && grip == p[2];
+		}
+
+		private void draw(PApplet app){
+			float bezelWidth = bezelRadius - gripRadius;
+			double a, sina, cosa;
+			float tickLength;
+			behind = (PGraphicsJava2D) app.createGraphics(width, height, PApplet.JAVA2D);
+			behind.beginDraw();
+			behind.ellipseMode(PApplet.CENTER);
+			// Back ground colour
+			if(opaque == true)
+				behind.background(back);
+			else
+				behind.background(behind.color(255,0));
+			behind.translate(width/2, height/2);
+			if(bezelWidth > 0){
+				// Draw bezel and ticks
+				behind.noStroke();
+				behind.fill(bezel);
+				if(drawArcOnly)
+					behind.arc(0,0,2*bezelRadius, 2*bezelRadius, PApplet.radians(startAng), PApplet.radians(endAng));
+				else
+					behind.ellipse(0,0,2*bezelRadius, 2*bezelRadius);
+				if(showTicks){
+					behind.noFill();
+					behind.strokeWeight(1.6f);
+					behind.stroke(tick);
+					float deltaA = (endAng - startAng)/(nbrTicks - 1);
+					for(int t = 0; t < nbrTicks; t++){
+						tickLength = gripRadius + ((t == 0 || t == nbrTicks - 1) ? bezelWidth : bezelWidth * 0.8f); 
+						a =  Math.toRadians(startAng + t * deltaA);
+						sina = Math.sin(a);
+						cosa = Math.cos(a);
+						behind.line((float)(gripRadius * cosa), (float)(gripRadius * sina), (float)(tickLength * cosa), (float)(tickLength * sina));
+					}
+				}
+			}
+			behind.endDraw();
+			// draw grip (inner) part of knob
+			front = (PGraphicsJava2D) app.createGraphics(width, height, PApplet.JAVA2D);
+			front.beginDraw();
+			front.ellipseMode(PApplet.CENTER);
+			front.background(front.color(255,0));
+			front.translate(width/2, height/2);
+			front.strokeWeight(1.6f);
+			front.stroke(grip);
+			front.fill(grip);
+			if(drawArcOnly)
+				front.arc(0,0,2*gripRadius, 2*gripRadius, PApplet.radians(startAng), PApplet.radians(endAng));
+			else
+				front.ellipse(0,0,2*gripRadius, 2*gripRadius);
+			front.endDraw();
+		}
+
+		public int hashCode(){
+			int h = width * 31 + height;
+			h = h * 31 + Float.floatToIntBits(bezelRadius);
+			h = h * 31 + Float.floatToIntBits(gripRadius);
+			h = h * 31 + Float.floatToIntBits(startAng);
+			h = h * 31 + Float.floatToIntBits(endAng);
+			h = h * 31 + nbrTicks;
+			h = h * 31 + (opaque ? 1 : 0) + (showTicks ? 2 : 0) + (drawArcOnly ? 4 : 0);
+			h = h * 31 + back;
+			h = h * 31 + bezel;
+			h = h * 31 + tick;
+			return h * 31 + grip;
+		}
+
+		public boolean equals(Object obj){
+			if(!(obj instanceof KnobFace))
+				return false;
+			KnobFace f = (KnobFace) obj;
+			return width == f.width && height == f.height
+					&& bezelRadius == f.bezelRadius && gripRadius == f.gripRadius
+					&& startAng == f.startAng && endAng == f.endAng
+					&& nbrTicks == f.nbrTicks && opaque == f.opaque 
+					&& showTicks == f.showTicks && drawArcOnly == f.drawArcOnly
+					&& back == f.back && bezel == f.bezel && tick == f.tick && grip == f.grip;
+		}
+	}
 }
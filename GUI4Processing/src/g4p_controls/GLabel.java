@@ -62,11 +62,7 @@ public class GLabel extends GTextIconAlignBase {
 	public GLabel(PApplet theApplet, float p0, float p1, float p2, float p3, String text) {
 		super(theApplet, p0, p1, p2, p3);
 		// The image buffer is just for the typing area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setFont(localFont);
+		bufferReleasable = true;
 		setText(text);
 		opaque = false;
 		// Now register control with applet
@@ -74,11 +70,24 @@ public class GLabel extends GTextIconAlignBase {
 		G4P.addControl(this);
 	}
 	
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
+		updateLoadingIcon();
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -91,7 +100,7 @@ public class GLabel extends GTextIconAlignBase {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 		
 		winApp.popStyle();
@@ -99,6 +108,7 @@ public class GLabel extends GTextIconAlignBase {
 	
 	protected void updateBuffer(){
 		if(bufferInvalid) {
+			acquireBuffer();
 			Graphics2D g2d = buffer.g2;
 			// Get the latest lines of text
 			LinkedList<TextLayoutInfo> lines = stext.getLines(g2d);	
@@ -113,7 +123,7 @@ public class GLabel extends GTextIconAlignBase {
 			calcAlignment();
 			// If there is an icon draw it
 			if(iconW != 0)
-				buffer.image(bicon[0], siX, siY);
+				bicon[0].draw(buffer, siX, siY);
 			float wrapWidth = stext.getWrapWidth();
 			float sx = 0, tw = 0;
 			buffer.translate(stX, stY);
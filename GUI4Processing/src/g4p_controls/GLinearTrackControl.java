@@ -27,6 +27,7 @@ import java.awt.Graphics2D;
 import java.awt.font.TextLayout;
 
 import processing.core.PApplet;
+import processing.core.PGraphicsJava2D;
 import processing.event.MouseEvent;
 
 /**
@@ -59,6 +60,11 @@ public abstract class GLinearTrackControl extends GValueControl {
 	protected StyledString[] labels;
 	protected boolean labelsInvalid = true;
 
+	// The parts of the slider drawn behind and in front of the thumb 
+	protected PGraphicsJava2D trackBack = null, trackFront = null;
+	// Set when only the thumb and/or value has changed
+	protected boolean thumbInvalid = false;
+
 	public GLinearTrackControl(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
 	}
@@ -182,7 +188,7 @@ public abstract class GLinearTrackControl extends GValueControl {
 				status = (downHotSpot == THUMB_SPOT) ? PRESS_CONTROL : OFF_CONTROL;
 				offset = ox + 0.5f - parametricPos; // normalised
 				takeFocus();
-				bufferInvalid = true;
+				thumbChanged();
 			}
 			break;
 		case MouseEvent.CLICK:
@@ -193,7 +199,7 @@ public abstract class GLinearTrackControl extends GValueControl {
 				dragging = false;
 				status = OFF_CONTROL;
 				loseFocus(null);
-				bufferInvalid = true;
+				thumbChanged();
 			}
 			break;
 		case MouseEvent.RELEASE:
@@ -212,7 +218,7 @@ public abstract class GLinearTrackControl extends GValueControl {
 						parametricTarget = findNearestTickValueTo(parametricTarget);
 				}
 				status = OFF_CONTROL;
-				bufferInvalid = true;
+				thumbChanged();
 				loseFocus(null);				
 			}
 			dragging = false;
@@ -231,7 +237,7 @@ public abstract class GLinearTrackControl extends GValueControl {
 						parametricTarget = 1;
 						offset = 0;
 					}
-					bufferInvalid = true;
+					thumbChanged();
 				}
 			}
 			break;
@@ -243,17 +249,144 @@ public abstract class GLinearTrackControl extends GValueControl {
 			else
 				status = OFF_CONTROL;
 			if(currStatus != status)
-				bufferInvalid = true;
+				thumbChanged();
 			break;			
 		}
 	}
 	
 	
 
+	/**
+	 * Only the thumb and value need to be redrawn.
+	 */
+	protected void thumbChanged(){
+		thumbInvalid = true;
+	}
+
+	protected boolean isDamaged(){
+		return (bufferInvalid || thumbInvalid) && isShown();
+	}
+
+	/**
+	 * Release the track layers as well as the buffer.
+	 */
+	boolean releaseBuffer(){
+		boolean released = super.releaseBuffer();
+		if(released)
+			releaseLayers(G4P.windows.get(winApp));
+		return released;
+	}
+
+	/**
+	 * Release the track layers once the slider is in the atlas, they are
+	 * recreated when the slider next changes.
+	 */
+	void storeInAtlas(GWindowInfo winfo){
+		super.storeInAtlas(winfo);
+		releaseLayers(winfo);
+	}
+
+	/**
+	 * Release the track layers as well as the buffer.
+	 */
+	void disposeBuffers(GWindowInfo winfo){
+		super.disposeBuffers(winfo);
+		releaseLayers(winfo);
+	}
+
+	private void releaseLayers(GWindowInfo winfo){
+		if(trackBack != null && winfo != null){
+			winfo.bufferPool.release(getClass(), trackBack);
+			winfo.bufferPool.release(getClass(), trackFront);
+		}
+		trackBack = trackFront = null;
+	}
+
+	/**
+	 * The track, ticks and limit/tick labels are kept in two layers (behind 
+	 * and in front of the thumb) which are only redrawn when the buffer is 
+	 * invalid. If only the value has changed the layers are composited with 
+	 * the thumb and value label.
+	 */
+	protected void updateBuffer(){
+		if(bufferInvalid || thumbInvalid) {
+			acquireBuffer();
+			if(bufferInvalid || trackBack == null){
+				if(trackBack == null){
+					trackBack = createBuffer();
+					trackFront = createBuffer();
+				}
+				trackBack.beginDraw();
+				drawTrackBack(trackBack);
+				trackBack.endDraw();
+				trackFront.beginDraw();
+				trackFront.background(trackFront.color(255,0));
+				trackFront.pushMatrix();
+				trackFront.translate(width/2, height/2);
+				drawTrackFront(trackFront);
+				trackFront.popMatrix();
+				trackFront.endDraw();
+			}
+			bufferInvalid = false;
+			thumbInvalid = false;
+			buffer.beginDraw();
+			buffer.background(buffer.color(255,0));
+			drawLayer(trackBack);
+			buffer.pushMatrix();
+			buffer.translate(width/2, height/2);
+			drawThumb(buffer);
+			buffer.popMatrix();
+			drawLayer(trackFront);
+			// Display slider value
+			if(labels == null && showValue){
+				buffer.pushMatrix();
+				buffer.translate(width/2, height/2);
+				buffer.g2.setColor(jpalette[2]);
+				drawValue();
+				buffer.popMatrix();
+			}
+			buffer.endDraw();
+		}
+	}
+
+	/**
+	 * Copy a track layer into the buffer.
+	 */
+	private void drawLayer(PGraphicsJava2D layer){
+		buffer.pushStyle();
+		buffer.imageMode(PApplet.CORNER);
+		buffer.image(layer, 0, 0);
+		buffer.popStyle();
+	}
+
+	/**
+	 * Draw the background, ticks and track i.e. the parts behind the thumb.
+	 * @param pg the graphics context (origin at top-left corner)
+	 */
+	protected abstract void drawTrackBack(PGraphicsJava2D pg);
+
+	/**
+	 * Draw the thumb for the current value.
+	 * @param pg the graphics context (origin at control centre)
+	 */
+	protected abstract void drawThumb(PGraphicsJava2D pg);
+
+	/**
+	 * Draw the parts in front of the thumb i.e. the limits or tick labels.
+	 * @param pg the graphics context (origin at control centre)
+	 */
+	protected void drawTrackFront(PGraphicsJava2D pg){
+		pg.g2.setColor(jpalette[2]);
+		if(labels != null)
+			drawLabels(pg);
+		else if(showLimits)
+			drawLimits(pg);
+	}
+
 	public void draw(){
 		if(!visible) return;
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -267,7 +400,7 @@ public abstract class GLinearTrackControl extends GValueControl {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 		winApp.popMatrix();
 
@@ -278,7 +411,10 @@ public abstract class GLinearTrackControl extends GValueControl {
 		Graphics2D g2d = buffer.g2;
 		float px, py;
 		TextLayout line;
-		ssValue = new StyledString(getNumericDisplayString(getValueF()));
+		// Only layout the value text if it has changed
+		String s = getNumericDisplayString(getValueF());
+		if(ssValue == null || !s.equals(ssValue.getPlainText()))
+			ssValue = new StyledString(s);
 		line = ssValue.getLines(g2d).getFirst().layout;
 		float advance = line.getVisibleAdvance();
 		switch(textOrientation){
@@ -314,7 +450,11 @@ public abstract class GLinearTrackControl extends GValueControl {
 	}
 	
 	protected void drawLimits(){
-		Graphics2D g2d = buffer.g2;
+		drawLimits(buffer);
+	}
+
+	protected void drawLimits(PGraphicsJava2D pg){
+		Graphics2D g2d = pg.g2;
 		float px, py;
 		TextLayout line;
 		if(limitsInvalid){
@@ -327,37 +467,37 @@ public abstract class GLinearTrackControl extends GValueControl {
 			line = ssStartLimit.getLines(g2d).getFirst().layout;	
 			px = -trackLength/2 + line.getDescent();
 			py = trackOffset + line.getVisibleAdvance();
-			buffer.pushMatrix();
-			buffer.translate(px, py);
-			buffer.rotate(-PI/2);
+			pg.pushMatrix();
+			pg.translate(px, py);
+			pg.rotate(-PI/2);
 			line.draw(g2d, 0, 0 );
-			buffer.popMatrix();
+			pg.popMatrix();
 			line = ssEndLimit.getLines(g2d).getFirst().layout;	
 			px = trackLength/2  + line.getDescent();
 			py = trackOffset + line.getVisibleAdvance();
-			buffer.pushMatrix();
-			buffer.translate(px, py);
-			buffer.rotate(-PI/2);
+			pg.pushMatrix();
+			pg.translate(px, py);
+			pg.rotate(-PI/2);
 			line.draw(g2d, 0, 0 );
-			buffer.popMatrix();
+			pg.popMatrix();
 			break;
 		case ORIENT_RIGHT:
 			line = ssStartLimit.getLines(g2d).getFirst().layout;	
 			px = -trackLength/2 - line.getDescent();
 			py = trackOffset;
-			buffer.pushMatrix();
-			buffer.translate(px, py);
-			buffer.rotate(PI/2);
+			pg.pushMatrix();
+			pg.translate(px, py);
+			pg.rotate(PI/2);
 			line.draw(g2d, 0, 0 );
-			buffer.popMatrix();
+			pg.popMatrix();
 			line = ssEndLimit.getLines(g2d).getFirst().layout;	
 			px = trackLength/2  - line.getDescent();
 			py = trackOffset;
-			buffer.pushMatrix();
-			buffer.translate(px, py);
-			buffer.rotate(PI/2);
+			pg.pushMatrix();
+			pg.translate(px, py);
+			pg.rotate(PI/2);
 			line.draw(g2d, 0, 0 );
-			buffer.popMatrix();
+			pg.popMatrix();
 			break;
 		case ORIENT_TRACK:
 			line = ssStartLimit.getLines(g2d).getFirst().layout;	
@@ -373,7 +513,11 @@ public abstract class GLinearTrackControl extends GValueControl {
 	}
 
 	protected void drawLabels(){
-		Graphics2D g2d = buffer.g2;
+		drawLabels(buffer);
+	}
+
+	protected void drawLabels(PGraphicsJava2D pg){
+		Graphics2D g2d = pg.g2;
 		float px, py;
 		TextLayout line;
 		if(labelsInvalid){
@@ -388,11 +532,11 @@ public abstract class GLinearTrackControl extends GValueControl {
 				line = labels[i].getLines(g2d).getFirst().layout;	
 				px = (i * deltaX - 0.5f)*trackLength + line.getDescent();
 				py = trackOffset + line.getVisibleAdvance();
-				buffer.pushMatrix();
-				buffer.translate(px, py);
-				buffer.rotate(-PI/2);
+				pg.pushMatrix();
+				pg.translate(px, py);
+				pg.rotate(-PI/2);
 				line.draw(g2d, 0, 0 );
-				buffer.popMatrix();
+				pg.popMatrix();
 			}
 			break;
 		case ORIENT_RIGHT:
@@ -400,11 +544,11 @@ public abstract class GLinearTrackControl extends GValueControl {
 				line = labels[i].getLines(g2d).getFirst().layout;	
 				px = (i * deltaX - 0.5f)*trackLength - line.getDescent();
 				py = trackOffset;
-				buffer.pushMatrix();
-				buffer.translate(px, py);
-				buffer.rotate(PI/2);
+				pg.pushMatrix();
+				pg.translate(px, py);
+				pg.rotate(PI/2);
 				line.draw(g2d, 0, 0 );
-				buffer.popMatrix();
+				pg.popMatrix();
 			}
 			break;
 		case ORIENT_TRACK:
@@ -0,0 +1,299 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+package g4p_controls;
+
+import java.awt.GraphicsEnvironment;
+
+import processing.core.PApplet;
+import processing.core.PGraphicsJava2D;
+import processing.core.PImage;
+import processing.event.KeyEvent;
+import processing.event.MouseEvent;
+
+/**
+ * Renders a G4P GUI into an off-screen image without a display window. <br>
+ * 
+ * This is intended for automated tests and benchmarks. The renderer owns a 
+ * PApplet that is never started (no frame or animation thread) whose 
+ * drawing surface is an off-screen buffer. Controls are created with this 
+ * PApplet in the normal way, e.g. <br>
+ * <pre>
+ * GOffscreenRenderer renderer = new GOffscreenRenderer(400, 300);
+ * GButton btn = new GButton(renderer.getPApplet(), 10, 10, 80, 20, "OK");
+ * renderer.frame();   // controls are added to the window at the end of a frame
+ * renderer.click(50, 20);
+ * renderer.frame();
+ * PImage img = renderer.getImage();
+ * </pre>
+ * Time is controlled by a synthetic clock which is advanced by each call to 
+ * frame() so animations, easing and caret flashing are repeatable. Mouse and 
+ * keyboard events can be injected and are dispatched immediately. <br>
+ * 
+ * <b>Running without a display</b><br>
+ * Controls need a PApplet, and in Processing 2 the PApplet is an AWT Applet
+ * which cannot be created when the JVM is headless (java.awt.headless=true,
+ * or no DISPLAY on Linux). No window is ever shown, so on a build agent 
+ * without a display run the JVM under a virtual X server, e.g. <br>
+ * <pre>
+ * xvfb-run -a java -cp ... MyGuiTest
+ * </pre>
+ * Everything else (the canvas and the control buffers) is drawn into 
+ * off-screen images. If the JVM is headless the constructor throws an 
+ * IllegalStateException explaining this. <br>
+ * 
+ * @author Peter Lager
+ *
+ */
+public final class GOffscreenRenderer {
+
+	/**
+	 * PApplet that is never started and uses a synthetic clock.
+	 */
+	static final class OffscreenApplet extends PApplet {
+		private static final long serialVersionUID = 2214937405917330817L;
+
+		int clock = 0;
+
+		public int millis(){
+			return clock;
+		}
+	}
+
+	private final OffscreenApplet app;
+	private final PGraphicsJava2D canvas;
+	private final GWindowInfo winfo;
+
+	private double frameMillis = 1000.0 / 60;
+	private double time = 0;
+	private int background = 0xFFFFFFFF;
+	private long lastFrameNanos = 0;
+
+	/**
+	 * Create an off-screen renderer.
+	 * 
+	 * @param width width of the off-screen display
+	 * @param height height of the off-screen display
+	 * @throws IllegalStateException if the JVM is headless
+	 */
+	public GOffscreenRenderer(int width, int height){
+		if(GraphicsEnvironment.isHeadless())
+			throw new IllegalStateException("GOffscreenRenderer needs an X display because "
+					+ "PApplet is an AWT component, run the JVM under a virtual display e.g. xvfb-run");
+		app = new OffscreenApplet();
+		canvas = (PGraphicsJava2D) app.createGraphics(width, height, PApplet.JAVA2D);
+		// Everything the controls draw on the PApplet goes to the canvas
+		app.g = canvas;
+		app.width = width;
+		app.height = height;
+		app.frameRate = 60;
+		if(G4P.sketchApplet == null)
+			G4P.sketchApplet = app;
+		winfo = new GWindowInfo(app);
+		winfo.offscreen = true;
+		G4P.windows.put(app, winfo);
+	}
+
+	/**
+	 * Get the PApplet to use when creating controls.
+	 */
+	public PApplet getPApplet(){
+		return app;
+	}
+
+	/**
+	 * Set the number of frames per second of the synthetic clock.
+	 * The default is 60.
+	 * 
+	 * @param fps frames per second
+	 */
+	public void setFrameRate(float fps){
+		if(fps > 0){
+			frameMillis = 1000.0 / fps;
+			app.frameRate = fps;
+		}
+	}
+
+	/**
+	 * Set the colour to clear the display to before each frame.
+	 * @param col ARGB colour
+	 */
+	public void setBackground(int col){
+		background = col;
+	}
+
+	/**
+	 * Advance the clock by one frame and then draw the GUI. This performs the 
+	 * same steps as Processing i.e. the pre, draw and post methods.
+	 * 
+	 * @return the time taken to render the frame in nanoseconds
+	 */
+	public long frame(){
+		long start = System.nanoTime();
+		time += frameMillis;
+		app.clock = (int) Math.round(time);
+		app.frameCount++;
+		winfo.pre();
+		canvas.beginDraw();
+		canvas.background(background);
+		winfo.draw();
+		canvas.endDraw();
+		winfo.post();
+		lastFrameNanos = System.nanoTime() - start;
+		return lastFrameNanos;
+	}
+
+	/**
+	 * Render a number of frames.
+	 * 
+	 * @param nbrFrames number of frames
+	 * @return the total time taken in nanoseconds
+	 */
+	public long frames(int nbrFrames){
+		long total = 0;
+		for(int i = 0; i < nbrFrames; i++)
+			total += frame();
+		return total;
+	}
+
+	/**
+	 * @return the time taken to render the last frame in nanoseconds
+	 */
+	public long getLastFrameNanos(){
+		return lastFrameNanos;
+	}
+
+	/**
+	 * @return the value of the synthetic clock in milliseconds
+	 */
+	public int millis(){
+		return app.clock;
+	}
+
+	/**
+	 * Get a copy of the last frame drawn.
+	 */
+	public PImage getImage(){
+		return canvas.get();
+	}
+
+	/**
+	 * Get the off-screen display. This is changed by the next frame so use 
+	 * getImage() to keep the frame.
+	 */
+	public PGraphicsJava2D getCanvas(){
+		return canvas;
+	}
+
+	/**
+	 * Inject a mouse event. The PApplet mouse fields are updated first.
+	 * 
+	 * @param action MouseEvent.PRESS, RELEASE, CLICK, DRAG or MOVE
+	 * @param x horizontal position
+	 * @param y vertical position
+	 * @param button PApplet.LEFT, RIGHT or CENTER (0 if no button)
+	 */
+	public void mouseEvent(int action, int x, int y, int button){
+		app.pmouseX = app.mouseX;
+		app.pmouseY = app.mouseY;
+		app.mouseX = x;
+		app.mouseY = y;
+		if(action == MouseEvent.PRESS){
+			app.mousePressed = true;
+			app.mouseButton = button;
+		}
+		else if(action == MouseEvent.RELEASE)
+			app.mousePressed = false;
+		int count = (action == MouseEvent.CLICK) ? 1 : 0;
+		winfo.mouseEvent(new MouseEvent(null, app.clock, action, 0, x, y, button, count));
+	}
+
+	/**
+	 * Move the mouse (without a button pressed) to a position.
+	 */
+	public void mouseMove(int x, int y){
+		mouseEvent(MouseEvent.MOVE, x, y, 0);
+	}
+
+	/**
+	 * Drag the mouse (with the left button pressed) to a position.
+	 */
+	public void mouseDrag(int x, int y){
+		mouseEvent(MouseEvent.DRAG, x, y, PApplet.LEFT);
+	}
+
+	/**
+	 * Click the left mouse button at a position. This generates a MOVE, 
+	 * PRESS, RELEASE and CLICK event.
+	 */
+	public void click(int x, int y){
+		mouseEvent(MouseEvent.MOVE, x, y, 0);
+		mouseEvent(MouseEvent.PRESS, x, y, PApplet.LEFT);
+		mouseEvent(MouseEvent.RELEASE, x, y, PApplet.LEFT);
+		mouseEvent(MouseEvent.CLICK, x, y, PApplet.LEFT);
+	}
+
+	/**
+	 * Inject a key event. The PApplet key fields are updated first.
+	 * 
+	 * @param action KeyEvent.PRESS, RELEASE or TYPE
+	 * @param key the key character (PApplet.CODED for coded keys)
+	 * @param keyCode the key code
+	 */
+	public void keyEvent(int action, char key, int keyCode){
+		app.key = key;
+		app.keyCode = keyCode;
+		if(action == KeyEvent.PRESS)
+			app.keyPressed = true;
+		else if(action == KeyEvent.RELEASE)
+			app.keyPressed = false;
+		winfo.keyEvent(new KeyEvent(null, app.clock, action, 0, key, keyCode));
+	}
+
+	/**
+	 * Type a character. This generates a PRESS, TYPE and RELEASE event.
+	 */
+	public void type(char key){
+		keyEvent(KeyEvent.PRESS, key, key);
+		keyEvent(KeyEvent.TYPE, key, 0);
+		keyEvent(KeyEvent.RELEASE, key, key);
+	}
+
+	/**
+	 * Type a string one character at a time.
+	 */
+	public void type(String text){
+		for(int i = 0; i < text.length(); i++)
+			type(text.charAt(i));
+	}
+
+	/**
+	 * Dispose of all the controls and release the off-screen resources.
+	 */
+	public void dispose(){
+		winfo.dispose();
+		G4P.windows.remove(app);
+		if(G4P.sketchApplet == app)
+			G4P.sketchApplet = null;
+	}
+}
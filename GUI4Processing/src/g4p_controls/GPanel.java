@@ -28,7 +28,6 @@ import g4p_controls.HotSpot.HSrect;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.font.TextLayout;
-import java.util.LinkedList;
 
 import processing.core.PApplet;
 import processing.core.PGraphicsJava2D;
@@ -71,6 +70,9 @@ public class GPanel extends GTextBase {
 	/** true if the panel is being dragged */
 	protected boolean beingDragged = false;
 
+	/** Mouse position when the panel was last moved by dragging */
+	protected float lastMouseX, lastMouseY;
+
 	protected boolean draggable = true;
 	protected boolean collapsible = true;
 
@@ -116,11 +118,8 @@ public class GPanel extends GTextBase {
 		else
 			setDragArea();
 		// Create the list of children
-		children = new LinkedList<GAbstractControl>();
-		// The image buffer is just for the tab area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setFont(localFont);
+		children = new ZOrderList();
+		bufferReleasable = true;
 		setText(text);
 		calcHotSpots();
 		constrainPanelPosition();
@@ -172,6 +171,7 @@ public class GPanel extends GTextBase {
 	
 	public void setText(String text){
 		super.setText(text);
+		acquireBuffer();
 		stext.getLines(buffer.g2);
 		tabHeight = (int) (stext.getMaxLineHeight() + 4);
 		tabWidth = (int) (stext.getMaxLineLength() + 8);
@@ -183,7 +183,8 @@ public class GPanel extends GTextBase {
 		if(font != null)
 			localFont = font;
 		tabHeight = (int) (1.2f * localFont.getSize() + 2);
-		buffer.g2.setFont(localFont);
+		if(buffer != null)
+			buffer.g2.setFont(localFont);
 		bufferInvalid = true;
 		calcHotSpots();
 		bufferInvalid = true;
@@ -197,6 +198,23 @@ public class GPanel extends GTextBase {
 		beingDragged = false;
 	}
 
+	/**
+	 * Children are not drawn when the panel is collapsed.
+	 */
+	protected boolean isShowingChildren(){
+		return !tabOnly;
+	}
+
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	/**
 	 * Draw the panel.
 	 * If tabOnly == true 
@@ -207,7 +225,7 @@ public class GPanel extends GTextBase {
 	public void draw(){
 		if(!visible) return;
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -223,7 +241,7 @@ public class GPanel extends GTextBase {
 			winApp.imageMode(PApplet.CORNER);
 			if(alphaLevel < 255)
 				winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-			winApp.image(buffer, 0, 0);	
+			drawBuffer();
 
 			winApp.popMatrix();
 		}
@@ -240,6 +258,7 @@ public class GPanel extends GTextBase {
 
 	protected void updateBuffer(){
 		if(bufferInvalid) {
+			acquireBuffer();
 			Graphics2D g2d = buffer.g2;
 			buffer.beginDraw();
 
@@ -299,6 +318,10 @@ public class GPanel extends GTextBase {
 				takeFocus();
 				beingDragged = false;
 			}
+			// Always start a drag from where the mouse was pressed even if
+			// the panel already has the focus
+			lastMouseX = winApp.mouseX;
+			lastMouseY = winApp.mouseY;
 			break;
 		case MouseEvent.CLICK:
 			if(focusIsWith == this && collapsible){
@@ -346,8 +369,12 @@ public class GPanel extends GTextBase {
 		case MouseEvent.DRAG:
 			if(focusIsWith == this && draggable ){//&& parent == null){
 				// Maintain centre for drawing purposes
-				cx += (winApp.mouseX - winApp.pmouseX);
-				cy += (winApp.mouseY - winApp.pmouseY);
+				// Use the last position seen rather than pmouseX/Y since 
+				// drag events might have been merged
+				cx += (winApp.mouseX - lastMouseX);
+				cy += (winApp.mouseY - lastMouseY);
+				lastMouseX = winApp.mouseX;
+				lastMouseY = winApp.mouseY;
 				//	Update x and y positions
 				x = cx - width/2;
 				y = cy - height/2;
@@ -526,6 +553,7 @@ public class GPanel extends GTextBase {
 		// Maintain centre for
 		cx = x + width/2;
 		cy = y + height/2;
+		boundsChanged();
 	}
 
 
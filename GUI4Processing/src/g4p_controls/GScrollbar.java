@@ -67,8 +67,7 @@ class GScrollbar extends GAbstractControl {
 	 */
 	public GScrollbar(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
+		bufferReleasable = true;
 		hotspots = new HotSpot[]{
 				new HSrect(1, 0, 0, 16, height),			// low cap
 				new HSrect(2, width - 16, 0, 16, height),	// high cap
@@ -232,6 +231,7 @@ class GScrollbar extends GAbstractControl {
 
 	protected void updateBuffer(){
 		if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
 			Graphics2D g2d = buffer.g2;
 			buffer.beginDraw();
@@ -296,10 +296,19 @@ class GScrollbar extends GAbstractControl {
 		}
 	}
 
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
 		if(bufferInvalid)
-			updateBuffer();
+			refreshBuffer();
 
 		winApp.pushStyle();
 		winApp.pushMatrix();
@@ -309,7 +318,7 @@ class GScrollbar extends GAbstractControl {
 		winApp.imageMode(PApplet.CENTER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);
+		drawBuffer();
 
 		winApp.popMatrix();
 		winApp.popStyle();
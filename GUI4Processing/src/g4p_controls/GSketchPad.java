@@ -23,6 +23,8 @@
 
 package g4p_controls;
 
+import java.awt.Color;
+
 import processing.core.PApplet;
 import processing.core.PGraphics;
 
@@ -44,9 +46,19 @@ public class GSketchPad extends GAbstractControl {
 
 	protected PGraphics pad = null;
 
+	private static final Color TRANSPARENT = new Color(0, 0, 0, 0);
+
+	// If true the graphic is only redrawn (and rescaled) when it has changed
+	protected boolean trackChanges = false;
+	private boolean dirty = false;
+	// The rows of the graphic that have changed (used when scaling)
+	private int dirtyY0 = Integer.MAX_VALUE, dirtyY1 = -1;
+
 	public GSketchPad(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
 		cursorOver = G4P.mouseOff; // does not change
+		// The graphic belongs to the sketch so only read it on the animation thread
+		parallelRefresh = false;
 		registeredMethods = DRAW_METHOD;
 		G4P.addControl(this);
 	}
@@ -56,8 +68,94 @@ public class GSketchPad extends GAbstractControl {
 			return;
 		pad = pg;
 		scaleGraphic = (int)width != pg.width || (int)height != pg.height;
+		bufferInvalid = true;
+		guiChanged();
+	}
+
+	/**
+	 * If true the sketch pad only redraws the graphic when it has changed. 
+	 * The graphic is changed if endDraw() has been called on it since it was
+	 * last displayed or markDirty() has been called. <br>
+	 * If the graphic has to be scaled the scaled image is kept so it is only
+	 * rescaled when the graphic changes. <br>
+	 * The default is false (the graphic is redrawn every frame).
+	 * 
+	 * @param track true to track changes to the graphic
+	 */
+	public void setTrackChanges(boolean track){
+		trackChanges = track;
+		if(!track && buffer != null){
+			GWindowInfo winfo = G4P.windows.get(winApp);
+			if(winfo != null)
+				winfo.bufferPool.release(getClass(), buffer);
+			buffer = null;
+		}
+		bufferInvalid = true;
+	}
+
+	/**
+	 * Tell the sketch pad that the whole graphic has changed.
+	 */
+	public void markDirty(){
+		dirty = true;
+		bufferInvalid = true;
+	}
+
+	/**
+	 * Tell the sketch pad that part of the graphic has changed. If the graphic
+	 * is scaled then only the rows that have changed are rescaled.
+	 * 
+	 * @param x left edge of the changed area
+	 * @param y top edge of the changed area
+	 * @param w width of the changed area
+	 * @param h height of the changed area
+	 */
+	public void markDirty(int x, int y, int w, int h){
+		dirty = true;
+		dirtyY0 = Math.min(dirtyY0, Math.max(0, y));
+		dirtyY1 = Math.max(dirtyY1, y + h);
 	}
 	
+	/**
+	 * The graphic can be changed by the sketch at any time so it is always
+	 * drawn unless changes are being tracked.
+	 */
+	protected boolean isDamaged(){
+		if(pad == null || !isShown())
+			return false;
+		return !trackChanges || dirty || bufferInvalid || pad.isModified();
+	}
+
+	/**
+	 * Keep a scaled copy of the graphic. Only the rows that have changed are 
+	 * rescaled unless the whole graphic has changed.
+	 */
+	protected void updateBuffer(){
+		if(buffer == null){
+			buffer = createBuffer();
+			bufferInvalid = true;
+		}
+		float sy = pad.height / height;
+		int y0 = 0, y1 = (int)height;
+		if(!bufferInvalid){
+			if(dirtyY1 >= 0){
+				// Only rescale the rows that have changed
+				y0 = Math.max(0, (int)Math.floor(dirtyY0 / sy) - 1);
+				y1 = Math.min((int)height, (int)Math.ceil(dirtyY1 / sy) + 1);
+			}
+			else if(!pad.isModified())
+				return;
+		}
+		int v0 = Math.round(y0 * sy), v1 = Math.round(y1 * sy);
+		bufferInvalid = false;
+		buffer.beginDraw();
+		buffer.g2.setBackground(TRANSPARENT);
+		buffer.g2.clearRect(0, y0, (int)width, y1 - y0);
+		buffer.imageMode(PApplet.CORNER);
+		buffer.image(pad, 0, y0, width, y1 - y0, 0, v0, pad.width, v1);
+		buffer.endDraw();
+	}
+
 	public void draw(){
 		if(!visible) return;
 
@@ -74,13 +172,20 @@ public class GSketchPad extends GAbstractControl {
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
 		if(pad != null){
 			try {
-				if(scaleGraphic)
+				if(scaleGraphic && trackChanges){
+					updateBuffer();
+					drawBuffer();
+				}
+				else if(scaleGraphic)
 					winApp.image(pad, 0, 0, width, height);
 				else
 					winApp.image(pad, 0, 0);
 //				System.out.println("Graphic updated with alpha " + alphaLevel);
 			}
 			catch(Exception excp){ /* Do nothing */	}
+			dirty = false;
+			dirtyY0 = Integer.MAX_VALUE;
+			dirtyY1 = -1;
 		}
 //		winApp.noFill();
 //		winApp.stroke(palette[3]);
@@ -61,10 +61,7 @@ public class GSlider extends GLinearTrackControl {
 				trackWidth, trackWidth );
 		trackOffset = calcTrackOffset();
 		
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-		buffer.g2.setFont(G4P.numericLabelFont);
+		bufferReleasable = true;
 		hotspots = new HotSpot[]{
 				new HScircle(THUMB_SPOT, width/2 + (parametricPos - 0.5f) * trackLength, height/2, trackWidth/2 ),  // thumb
 				new HSrect(TRACK_SPOT, (width-trackLength)/2, (height-trackWidth)/2, trackLength, trackWidth),		// track
@@ -107,75 +104,73 @@ public class GSlider extends GLinearTrackControl {
 	static int DBORDER = 1, LBORDER = 3, BACK = 6;
 	static int TBORDER = 15, TOFF = 3, TOVER = 11, TDOWN = 14, TDRAG = 15;
 
-	protected void updateBuffer(){
-		if(bufferInvalid) {
-			Graphics2D g2d = buffer.g2;
-			bufferInvalid = false;
-			buffer.beginDraw();
-			buffer.rectMode(PApplet.CENTER);
-			buffer.ellipseMode(PApplet.CENTER);
-			// Back ground colour
-			if(opaque == true)
-				buffer.background(palette[BACK]);
-			else
-				buffer.background(buffer.color(255,0));
-
-			// Draw track, thumb, ticks etc.
-			buffer.pushMatrix();
-			buffer.translate(width/2, height/2);
-			// draw ticks
-			if(showTicks){
-				float delta = 1.0f / (nbrTicks - 1);
-				for(int i = 0; i < nbrTicks; i++){
-					float tickx = ((i * delta - 0.5f)*trackLength);
-					buffer.strokeWeight(2);
-					buffer.stroke(palette[4]);
-					buffer.line(tickx, -trackWidth, tickx, trackWidth);
-					buffer.strokeWeight(1.2f);
-					buffer.stroke(palette[1]);
-					buffer.line(tickx, -trackWidth, tickx, trackWidth);
-				}
-			}
-			// Draw track surface
-			g2d.setColor(jpalette[5]);
-			g2d.fill(track);
-			// Draw thumb
-			switch(status){
-			case OFF_CONTROL:
-				buffer.fill(palette[TOFF]);
-				break;
-			case OVER_CONTROL:
-				buffer.fill(palette[TOVER]);
-				break;
-			case PRESS_CONTROL:
-				buffer.fill(palette[TDOWN]);
-				break;
-			case DRAG_CONTROL:
-				buffer.fill(palette[TDRAG]);
-				break;
-			}
-			buffer.noStroke();
-			buffer.ellipse((parametricPos - 0.5f) * trackLength, 0, trackWidth, trackWidth);
-			// Draw track border
-			g2d.setStroke(pen_2_0);
-			g2d.setColor(jpalette[3]);
-			g2d.draw(track);
-
-			// Display slider values
-			g2d.setColor(jpalette[2]);
-			if(labels != null){
-				drawLabels();
-			}
-			else {
-				if(showLimits)
-					drawLimits();
-				// Display slider value
-				if(showValue)
-					drawValue();
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		pg.g2.setFont(G4P.numericLabelFont);
+		return pg;
+	}
+
+	protected void drawTrackBack(PGraphicsJava2D pg){
+		pg.rectMode(PApplet.CENTER);
+		pg.ellipseMode(PApplet.CENTER);
+		// Back ground colour
+		if(opaque == true)
+			pg.background(palette[BACK]);
+		else
+			pg.background(pg.color(255,0));
+		pg.pushMatrix();
+		pg.translate(width/2, height/2);
+		// draw ticks
+		if(showTicks){
+			float delta = 1.0f / (nbrTicks - 1);
+			for(int i = 0; i < nbrTicks; i++){
+				float tickx = ((i * delta - 0.5f)*trackLength);
+				pg.strokeWeight(2);
+				pg.stroke(palette[4]);
+				pg.line(tickx, -trackWidth, tickx, trackWidth);
+				pg.strokeWeight(1.2f);
+				pg.stroke(palette[1]);
+				pg.line(tickx, -trackWidth, tickx, trackWidth);
 			}
-			buffer.popMatrix();
-			buffer.endDraw();
 		}
+		// Draw track surface
+		pg.g2.setColor(jpalette[5]);
+		pg.g2.fill(track);
+		pg.popMatrix();
+	}
+
+	protected void drawThumb(PGraphicsJava2D pg){
+		pg.ellipseMode(PApplet.CENTER);
+		switch(status){
+		case OFF_CONTROL:
+			pg.fill(palette[TOFF]);
+			break;
+		case OVER_CONTROL:
+			pg.fill(palette[TOVER]);
+			break;
+		case PRESS_CONTROL:
+			pg.fill(palette[TDOWN]);
+			break;
+		case DRAG_CONTROL:
+			pg.fill(palette[TDRAG]);
+			break;
+		}
+		pg.noStroke();
+		pg.ellipse((parametricPos - 0.5f) * trackLength, 0, trackWidth, trackWidth);
+	}
+
+	protected void drawTrackFront(PGraphicsJava2D pg){
+		// Draw track border
+		Graphics2D g2d = pg.g2;
+		g2d.setStroke(pen_2_0);
+		g2d.setColor(jpalette[3]);
+		g2d.draw(track);
+		super.drawTrackFront(pg);
 	}
 
 }
@@ -85,10 +85,7 @@ public class GSlider2D extends GValueControl2D {
 		dragHeight = height - THUMB_SIZE - 2 * BORDER_WIDTH;
 		dragD = 2 + THUMB_SIZE/2;
 		
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-		buffer.g2.setFont(G4P.numericLabelFont);
+		bufferReleasable = true;
 		hotspots = new HotSpot[]{
 				new HSrect(THUMB_SPOT, dragD - HALF_THUMB_SIZE + parametricPosX * dragWidth, 
 						dragD - HALF_THUMB_SIZE + parametricPosY * dragHeight, THUMB_SIZE, THUMB_SIZE ),  // thumb
@@ -537,10 +534,21 @@ public class GSlider2D extends GValueControl2D {
 		}
 	}
 	
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		pg.g2.setFont(G4P.numericLabelFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -554,7 +562,7 @@ public class GSlider2D extends GValueControl2D {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 		winApp.popMatrix();
 
@@ -563,6 +571,7 @@ public class GSlider2D extends GValueControl2D {
 	
 	protected void updateBuffer(){
 		if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
 			buffer.beginDraw();
 
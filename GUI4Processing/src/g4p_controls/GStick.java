@@ -125,11 +125,7 @@ public class GStick extends GAbstractControl {
 		if(width < 40 || height < 40)
 			resize(PApplet.max(width,40), PApplet.max(height,40));
 
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.ellipseMode(PApplet.CORNER);
+		bufferReleasable = true;
 		opaque = false;
 		// Calculate stick metrics
 		float stickSize = PApplet.min(width, height);
@@ -341,11 +337,23 @@ public class GStick extends GAbstractControl {
 		}
 	}
 	
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		pg.rectMode(PApplet.CORNER);
+		pg.ellipseMode(PApplet.CORNER);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -358,7 +366,7 @@ public class GStick extends GAbstractControl {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 
 		winApp.popStyle();
@@ -366,6 +374,7 @@ public class GStick extends GAbstractControl {
 
 	protected void updateBuffer(){
 		if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
 			buffer.beginDraw();
 			// Back ground colour
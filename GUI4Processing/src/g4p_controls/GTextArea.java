@@ -107,7 +107,7 @@ public class GTextArea extends GEditableTextControl {
 	 */
 	public GTextArea(PApplet theApplet, float p0, float p1, float p2, float p3, int sbPolicy, int wrapWidth) {
 		super(theApplet, p0, p1, p2, p3, sbPolicy);
-		children = new LinkedList<GAbstractControl>();
+		children = new ZOrderList();
 		tx = ty = pad;
 		tw = width - 2 * pad - ((scrollbarPolicy & SCROLLBAR_VERTICAL) != 0 ? 18 : 0);
 		th = height - 2 * pad - ((scrollbarPolicy & SCROLLBAR_HORIZONTAL) != 0 ? 18 : 0);
@@ -121,9 +121,7 @@ public class GTextArea extends GEditableTextControl {
 		gpTextDisplayArea.closePath();
 
 		// The image buffer is just for the typing area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setFont(localFont);
+		buffer = createBuffer();
 		hotspots = new HotSpot[]{
 				new HSrect(1, tx, ty, tw, th),			// typing area
 				new HSrect(9, 0, 0, width, height)		// control surface
@@ -331,6 +329,7 @@ public class GTextArea extends GEditableTextControl {
 			}
 			g2d.setClip(null);
 			buffer.endDraw();
+			keyEventShown();
 		}
 	}
 
@@ -373,11 +372,21 @@ public class GTextArea extends GEditableTextControl {
 		}
 	}
 
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -392,7 +401,7 @@ public class GTextArea extends GEditableTextControl {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);
+		drawBuffer();
 		
 		// Draw caret if text display area
 		if(focusIsWith == this && showCaret && endTLHI != null){
@@ -419,7 +428,7 @@ public class GTextArea extends GEditableTextControl {
 
 	public PGraphics getSnapshot(){
 		updateBuffer();
-		PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics(buffer.width, buffer.height, PApplet.JAVA2D);
+		PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
 		snap.beginDraw();
 		snap.image(buffer,0,0);
 		if(hsb != null){
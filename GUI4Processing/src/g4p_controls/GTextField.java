@@ -91,7 +91,7 @@ public class GTextField extends GEditableTextControl {
 	 */
 	public GTextField(PApplet theApplet, float p0, float p1, float p2, float p3, int sbPolicy) {
 		super(theApplet, p0, p1, p2, p3, sbPolicy);
-		children = new LinkedList<GAbstractControl>();
+		children = new ZOrderList();
 		tx = ty = 2;
 		tw = width - 2 * 2;
 		th = height - ((scrollbarPolicy & SCROLLBAR_HORIZONTAL) != 0 ? 11 : 0);
@@ -104,9 +104,7 @@ public class GTextField extends GEditableTextControl {
 		gpTextDisplayArea.closePath();
 
 		// The image buffer is just for the typing area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setFont(localFont);
+		buffer = createBuffer();
 		hotspots = new HotSpot[]{
 				new HSrect(1, tx, ty, tw, th),			// typing area
 				new HSrect(9, 0, 0, width, height)		// control surface
@@ -200,7 +198,7 @@ public class GTextField extends GEditableTextControl {
 
 	public PGraphics getSnapshot(){
 		updateBuffer();
-		PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics(buffer.width, buffer.height, PApplet.JAVA2D);
+		PGraphicsJava2D snap = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
 		snap.beginDraw();
 		snap.image(buffer,0,0);
 		if(hsb != null){
@@ -405,9 +403,19 @@ public class GTextField extends GEditableTextControl {
 		}
 	}
 	
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setFont(localFont);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
-		updateBuffer();
+		refreshBuffer();
 
 		winApp.pushStyle();
 		winApp.pushMatrix();
@@ -422,7 +430,7 @@ public class GTextField extends GEditableTextControl {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);
+		drawBuffer();
 
 		// Draw caret if text display area
 		if(focusIsWith == this && showCaret && endTLHI.tli != null){
@@ -510,6 +518,7 @@ public class GTextField extends GEditableTextControl {
 			}
 			g2d.setClip(null);
 			buffer.endDraw();
+			keyEventShown();
 		}
 	}
 
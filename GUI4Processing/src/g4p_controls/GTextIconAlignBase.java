@@ -23,7 +23,10 @@
 
 package g4p_controls;
 
+import java.util.Arrays;
+
 import processing.core.PApplet;
+import processing.core.PGraphicsJava2D;
 import processing.core.PImage;
 
 /**
@@ -38,11 +41,19 @@ import processing.core.PImage;
  */
 public abstract class GTextIconAlignBase extends GTextAlign {
 
-	protected PImage[] bicon = null;
+	protected ImageTile[] bicon = null;
 	protected int iconW = 0, iconH = 0;
 	protected GAlign iconAlignH = GAlign.RIGHT, iconAlignV = GAlign.MIDDLE;
 	protected int siX, siY;
 
+	// Icon file being loaded in the background (if any)
+	private String loadingIcon = null;
+	private int loadingNbrImages;
+	private GAlign loadingH, loadingV;
+
+	// Optional cache of rendered surfaces, one per visual state
+	protected PGraphicsJava2D[] stateSurfaces = null;
+	protected boolean[] stateValid = null;
 
 	public GTextIconAlignBase(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
@@ -74,10 +85,33 @@ public abstract class GTextIconAlignBase extends GTextAlign {
 	 * @param vert TOP, MIDDLE, BOTTOM
 	 */
 	public void setIcon(String fname, int nbrImages, GAlign horz, GAlign vert){
-		PImage iconImage = ImageManager.loadImage(winApp, fname);
+		// If the icon is being loaded in the background then don't wait for 
+		// it, the control is drawn without the icon until it is ready
+		if(ImageManager.isLoading(fname)){
+			loadingIcon = fname;
+			loadingNbrImages = nbrImages;
+			loadingH = horz;
+			loadingV = vert;
+			return;
+		}
+		loadingIcon = null;
+		PImage iconImage = ImageManager.loadImage(this, fname);
 		setIcon(iconImage, nbrImages, horz, vert);
 	}
 
+	/**
+	 * If the icon was being loaded in the background see if it is ready and 
+	 * if it is then use it. This should be called at the start of draw(). 
+	 */
+	protected void updateLoadingIcon(){
+		if(loadingIcon != null && !ImageManager.isLoading(loadingIcon))
+			setIcon(loadingIcon, loadingNbrImages, loadingH, loadingV);
+	}
+
+	protected boolean isDamaged(){
+		return super.isDamaged() || (loadingIcon != null && isShown());
+	}
+
 	/**
 	 * Set the icon to be used and the horizontal and/or vertical icon alignment. 
 	 * Use the constants in GAlign e.g. <pre>GAlign.LEFT</pre> <br>
@@ -90,12 +124,13 @@ public abstract class GTextIconAlignBase extends GTextAlign {
 	 * @param vert TOP, MIDDLE, BOTTOM
 	 */
 	public void setIcon(PImage icon, int nbrImages, GAlign horz, GAlign vert){
+		loadingIcon = null;
 		if(icon != null){
 			if(nbrImages == 3)
-				bicon = ImageManager.makeTiles1D(winApp, icon, nbrImages, 1);
+				bicon = ImageManager.makeTileViews1D(icon, nbrImages, 1);
 			else {
-				bicon = new PImage[3];
-				PImage[] temp = ImageManager.makeTiles1D(winApp, icon, nbrImages, 1);
+				bicon = new ImageTile[3];
+				ImageTile[] temp = ImageManager.makeTileViews1D(icon, nbrImages, 1);
 				System.arraycopy(temp, 0, bicon, 0, temp.length);
 				for(int i = temp.length; i < 3; i++){
 						bicon[i] = bicon[i-1];
@@ -166,6 +201,88 @@ public abstract class GTextIconAlignBase extends GTextAlign {
 		}
 	}
 	
+	/**
+	 * Create or discard the cache of rendered surfaces. While the cache is in 
+	 * use the surfaces are kept for the life of the control so they are never 
+	 * stored in a texture atlas or released when the control is hidden.
+	 * 
+	 * @param nbrStates the number of visual states (0 to discard the cache)
+	 */
+	protected void setStateCache(int nbrStates){
+		if(nbrStates > 0){
+			if(stateSurfaces == null || stateSurfaces.length != nbrStates){
+				releaseStateSurfaces(G4P.windows.get(winApp));
+				stateSurfaces = new PGraphicsJava2D[nbrStates];
+				stateValid = new boolean[nbrStates];
+			}
+			releaseBuffer();
+			bufferReleasable = false;
+		}
+		else if(stateSurfaces != null){
+			releaseStateSurfaces(G4P.windows.get(winApp));
+			stateSurfaces = null;
+			stateValid = null;
+			bufferReleasable = true;
+		}
+		bufferInvalid = true;
+	}
+
+	/**
+	 * Return any cached surfaces to the window's buffer pool.
+	 */
+	private void releaseStateSurfaces(GWindowInfo winfo){
+		if(stateSurfaces == null)
+			return;
+		for(int i = 0; i < stateSurfaces.length; i++){
+			if(stateSurfaces[i] != null && winfo != null)
+				winfo.bufferPool.release(getClass(), stateSurfaces[i]);
+			stateSurfaces[i] = null;
+		}
+		buffer = null;
+	}
+
+	/**
+	 * Release all the cached surfaces, not just the one in use, as well as 
+	 * the buffer.
+	 */
+	void disposeBuffers(GWindowInfo winfo){
+		releaseStateSurfaces(winfo);
+		super.disposeBuffers(winfo);
+	}
+
+	/**
+	 * Make the cached surface for a visual state the current buffer. If the 
+	 * buffer has been invalidated (text, font, icon or colour scheme changed)
+	 * then every cached surface has to be redrawn.
+	 * 
+	 * @param state the visual state to display
+	 * @return true if the surface has to be drawn
+	 */
+	protected boolean useStateSurface(int state){
+		if(bufferInvalid){
+			Arrays.fill(stateValid, false);
+			bufferInvalid = false;
+		}
+		if(stateSurfaces[state] == null)
+			stateSurfaces[state] = createBuffer();
+		buffer = stateSurfaces[state];
+		if(stateValid[state])
+			return false;
+		stateValid[state] = true;
+		return true;
+	}
+
+	/**
+	 * Called when the visual state (e.g. mouse over or selected) changes. If the 
+	 * state surfaces are cached the buffer does not have to be redrawn.
+	 */
+	protected void stateChanged(){
+		if(stateSurfaces != null)
+			guiChanged();
+		else
+			bufferInvalid = true;
+	}
+
 	public String toString(){
 		return tag;
 	}
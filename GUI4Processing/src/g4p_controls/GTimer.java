@@ -57,6 +57,8 @@ public class GTimer implements GConstantsInternal {
 	protected Method eventHandlerMethod = null;
 	/* the name of the method to handle the event */ 
 	protected String eventHandlerMethodName;
+	/* The parameters passed to the event handler (never changes) */
+	protected final Object[] eventArgs = new Object[] { this };
 
 	// The number of repeats i.e. events to be fired.
 	protected int nrepeats = -1;
@@ -139,7 +141,7 @@ public class GTimer implements GConstantsInternal {
 	protected void fireEvent(){
 		if(eventHandlerMethod != null){
 			try {
-				eventHandlerMethod.invoke(eventHandlerObject, this);
+				eventHandlerMethod.invoke(eventHandlerObject, eventArgs);
 				if(--nrepeats == 0)
 					stop();
 			} catch (Exception e) {
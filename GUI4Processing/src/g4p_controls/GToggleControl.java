@@ -52,10 +52,7 @@ public abstract class GToggleControl extends GTextIconAlignBase {
 	public GToggleControl(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
 		// The image buffer is just for the typing area
-		buffer = (PGraphicsJava2D) winApp.createGraphics((int)width, (int)height, PApplet.JAVA2D);
-		buffer.rectMode(PApplet.CORNER);
-		buffer.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		bufferReleasable = true;
 		opaque = false;
 		hotspots = new HotSpot[]{
 				new HSrect(1, 0, 0, width, height)		// control surface
@@ -89,12 +86,25 @@ public abstract class GToggleControl extends GTextIconAlignBase {
 	 */
 	public void setSelected(boolean selected) {
 		if(this.selected != selected)
-			bufferInvalid = true;
+			stateChanged();
 		if(selected && group != null)
 			group.makeSelected(this);
 		this.selected = selected;
 	}
 
+	/**
+	 * If true an image of the control is kept for both the selected and 
+	 * unselected states so changing the selection does not need the control 
+	 * to be redrawn. The images are only redrawn if the text, font, icon or 
+	 * colour scheme is changed. <br>
+	 * This uses more memory so is off by default.
+	 * 
+	 * @param cache true to cache the control's state images
+	 */
+	public void setStateCaching(boolean cache){
+		setStateCache(cache ? 2 : 0);
+	}
+
 //	public void setSelected() {
 //		setSelected(true);
 //	}
@@ -106,7 +116,7 @@ public abstract class GToggleControl extends GTextIconAlignBase {
 		if(group == null){
 			// Independent action e.g. check box
 			selected = !selected;
-			bufferInvalid = true;
+			stateChanged();
 		}
 		else {
 			// Only need to do something if we click on an unselected option
@@ -159,11 +169,23 @@ public abstract class GToggleControl extends GTextIconAlignBase {
 		}
 	}
 
+	/**
+	 * Create the off-screen buffer with the settings this control needs.
+	 */
+	protected PGraphicsJava2D createBuffer(){
+		PGraphicsJava2D pg = super.createBuffer();
+		pg.rectMode(PApplet.CORNER);
+		pg.g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+				RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		return pg;
+	}
+
 	public void draw(){
 		if(!visible) return;
+		updateLoadingIcon();
 
 		// Update buffer if invalid
-		updateBuffer();
+		refreshBuffer();
 		winApp.pushStyle();
 
 		winApp.pushMatrix();
@@ -176,61 +198,73 @@ public abstract class GToggleControl extends GTextIconAlignBase {
 		winApp.imageMode(PApplet.CORNER);
 		if(alphaLevel < 255)
 			winApp.tint(TINT_FOR_ALPHA, alphaLevel);
-		winApp.image(buffer, 0, 0);	
+		drawBuffer();
 		winApp.popMatrix();
 		
 		winApp.popStyle();
 	}
 
 	protected void updateBuffer(){
-		if(bufferInvalid) {
-			Graphics2D g2d = buffer.g2;
-			// Get the latest lines of text
-			LinkedList<TextLayoutInfo> lines = stext.getLines(g2d);	
+		if(stateSurfaces != null){
+			if(useStateSurface(selected ? 1 : 0))
+				drawSurface();
+		}
+		else if(bufferInvalid) {
+			acquireBuffer();
 			bufferInvalid = false;
+			drawSurface();
+		}
+	}
 
-			buffer.beginDraw();
-			// Back ground colour
-			if(opaque == true)
-				buffer.background(palette[6]);
+	/**
+	 * Draw the control into the current buffer.
+	 */
+	protected void drawSurface(){
+		Graphics2D g2d = buffer.g2;
+		// Get the latest lines of text
+		LinkedList<TextLayoutInfo> lines = stext.getLines(g2d);	
+
+		buffer.beginDraw();
+		// Back ground colour
+		if(opaque == true)
+			buffer.background(palette[6]);
+		else
+			buffer.background(buffer.color(255,0));
+		// Calculate text and icon placement
+		calcAlignment();
+		// If there is an icon draw it
+		if(iconW != 0)
+			if(selected)
+				bicon[1].draw(buffer, siX, siY);
 			else
-				buffer.background(buffer.color(255,0));
-			// Calculate text and icon placement
-			calcAlignment();
-			// If there is an icon draw it
-			if(iconW != 0)
-				if(selected)
-					buffer.image(bicon[1], siX, siY);
-				else
-					buffer.image(bicon[0], siX, siY);
-			float wrapWidth = stext.getWrapWidth();
-			float sx = 0, tw = 0;
-			buffer.translate(stX, stY);
-			for(TextLayoutInfo lineInfo : lines){
-				TextLayout layout = lineInfo.layout;
-				buffer.translate(0, layout.getAscent());
-				switch(textAlignH){
-				case CENTER:
-					tw = layout.getAdvance();
-					tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
-					sx = (wrapWidth - tw)/2;
-					break;
-				case RIGHT:
-					tw = layout.getAdvance();
-					tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
-					sx = wrapWidth - tw;
-					break;
-				case LEFT:
-				case JUSTIFY:
-				default:
-					sx = 0;		
-				}
-				// display text
-				g2d.setColor(jpalette[2]);
-				lineInfo.layout.draw(g2d, sx, 0);
-				buffer.translate(0, layout.getDescent() + layout.getLeading());
+				bicon[0].draw(buffer, siX, siY);
+		float wrapWidth = stext.getWrapWidth();
+		float sx = 0, tw = 0;
+		buffer.translate(stX, stY);
+		for(TextLayoutInfo lineInfo : lines){
+			TextLayout layout = lineInfo.layout;
+			buffer.translate(0, layout.getAscent());
+			switch(textAlignH){
+			case CENTER:
+				tw = layout.getAdvance();
+				tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
+				sx = (wrapWidth - tw)/2;
+				break;
+			case RIGHT:
+				tw = layout.getAdvance();
+				tw = (tw > wrapWidth) ? tw - wrapWidth : tw;
+				sx = wrapWidth - tw;
+				break;
+			case LEFT:
+			case JUSTIFY:
+			default:
+				sx = 0;		
 			}
-			buffer.endDraw();
-		}	
+			// display text
+			g2d.setColor(jpalette[2]);
+			lineInfo.layout.draw(g2d, sx, 0);
+			buffer.translate(0, layout.getDescent() + layout.getLeading());
+		}
+		buffer.endDraw();
 	}
 }
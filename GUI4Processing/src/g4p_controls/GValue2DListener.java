@@ -0,0 +1,47 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+package g4p_controls;
+
+/**
+ * An alternative to naming an event handler method for controls that 
+ * have two values e.g. GSlider2D. <br>
+ * 
+ * The listener is called directly without using reflection so it is 
+ * faster, which matters for the stream of VALUE_CHANGING events
+ * generated while the thumb is being moved.
+ * 
+ * @author Peter Lager
+ *
+ */
+public interface GValue2DListener {
+
+	/**
+	 * Called when the control generates an event.
+	 * 
+	 * @param control the control generating the event
+	 * @param event the event type e.g. GEvent.VALUE_CHANGING
+	 */
+	public void handleValue2DEvents(GValueControl2D control, GEvent event);
+
+}
@@ -23,6 +23,8 @@
 
 package g4p_controls;
 
+import java.lang.reflect.InvocationTargetException;
+
 import processing.core.PApplet;
 
 /**
@@ -61,6 +63,9 @@ public abstract class GValueControl extends GAbstractControl {
 	
 	// Offset to between mouse and thumb centre
 	protected float offset;
+
+	// Typed alternative to the named event handler method
+	protected GValueListener valueListener = null;
 	
 	public GValueControl(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
@@ -70,7 +75,7 @@ public abstract class GValueControl extends GAbstractControl {
 		if(Math.abs(parametricTarget - parametricPos) > epsilon){
 			parametricPos += (parametricTarget - parametricPos) / easing;
 			updateDueToValueChanging();
-			bufferInvalid = true;
+			thumbChanged();
 			if(Math.abs(parametricTarget - parametricPos) > epsilon){
 				fireEvent(this, GEvent.VALUE_CHANGING);
 			}
@@ -81,6 +86,47 @@ public abstract class GValueControl extends GAbstractControl {
 		}
 	}
 	
+	/**
+	 * Use a listener object to handle the events generated by this control
+	 * instead of a named method. This replaces any existing event handler.
+	 * 
+	 * @param listener the listener (null to remove)
+	 */
+	public void addEventHandler(GValueListener listener){
+		valueListener = listener;
+		eventHandlerObject = null;
+		eventHandlerMethod = null;
+		eventHandlerMethodName = "";
+	}
+
+	/**
+	 * Use a named method to handle the events generated by this control. This 
+	 * replaces any existing event handler including a listener object.
+	 * 
+	 * @param obj the object to handle the event
+	 * @param methodName the method to execute in the object handler class
+	 */
+	public void addEventHandler(Object obj, String methodName){
+		valueListener = null;
+		super.addEventHandler(obj, methodName);
+	}
+
+	/**
+	 * Use the listener if there is one, otherwise the named method.
+	 */
+	protected void fireEvent(GAbstractControl source, GEvent event){
+		if(valueListener != null){
+			try {
+				valueListener.handleValueEvents(this, event);
+			} catch (Exception e) {
+				GMessenger.message(EXCP_IN_HANDLER,  
+						new Object[] {valueListener, "handleValueEvents", new InvocationTargetException(e) } );
+			}
+		}
+		else
+			super.fireEvent(source, event);
+	}
+
 	/**
 	 * This should be overridden in child classes so they can perform any class specific
 	 * actions when the value changes.
@@ -89,6 +135,15 @@ public abstract class GValueControl extends GAbstractControl {
 	protected void updateDueToValueChanging(){
 	}
 
+	/**
+	 * Called when the thumb position, or its appearance, changes. Controls that 
+	 * cache the parts that do not depend on the value should override this so
+	 * that only the thumb and value are redrawn.
+	 */
+	protected void thumbChanged(){
+		bufferInvalid = true;
+	}
+
 	/**
 	 * Used to format the number into a string for display.
 	 * @param number
@@ -23,6 +23,8 @@
 
 package g4p_controls;
 
+import java.lang.reflect.InvocationTargetException;
+
 import processing.core.PApplet;
 
 /**
@@ -48,10 +50,54 @@ public abstract class GValueControl2D extends GAbstractControl {
 	protected int valueType = DECIMAL;
 	protected int precision = 2;
 
+	// Typed alternative to the named event handler method
+	protected GValue2DListener valueListener = null;
+
 	public GValueControl2D(PApplet theApplet, float p0, float p1, float p2, float p3) {
 		super(theApplet, p0, p1, p2, p3);
 	}
 
+	/**
+	 * Use a listener object to handle the events generated by this control
+	 * instead of a named method. This replaces any existing event handler.
+	 * 
+	 * @param listener the listener (null to remove)
+	 */
+	public void addEventHandler(GValue2DListener listener){
+		valueListener = listener;
+		eventHandlerObject = null;
+		eventHandlerMethod = null;
+		eventHandlerMethodName = "";
+	}
+
+	/**
+	 * Use a named method to handle the events generated by this control. This 
+	 * replaces any existing event handler including a listener object.
+	 * 
+	 * @param obj the object to handle the event
+	 * @param methodName the method to execute in the object handler class
+	 */
+	public void addEventHandler(Object obj, String methodName){
+		valueListener = null;
+		super.addEventHandler(obj, methodName);
+	}
+
+	/**
+	 * Use the listener if there is one, otherwise the named method.
+	 */
+	protected void fireEvent(GAbstractControl source, GEvent event){
+		if(valueListener != null){
+			try {
+				valueListener.handleValue2DEvents(this, event);
+			} catch (Exception e) {
+				GMessenger.message(EXCP_IN_HANDLER,  
+						new Object[] {valueListener, "handleValue2DEvents", new InvocationTargetException(e) } );
+			}
+		}
+		else
+			super.fireEvent(source, event);
+	}
+
 	public void pre(){
 		if(Math.abs(parametricTargetX - parametricPosX) > epsilon || Math.abs(parametricTargetY - parametricPosY) > epsilon){
 			parametricPosX += (parametricTargetX - parametricPosX) / easing;
@@ -59,6 +59,11 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 
 	public boolean autoClear = true;
 
+	// Reused to pass parameters to the event handlers
+	private final Object[] drawArgs = new Object[2];
+	private final Object[] eventArgs = new Object[3];
+	private final Object[] prepostArgs = new Object[2];
+
 	public GWinApplet(String mode){
 		super();
 		this.mode = mode;
@@ -95,7 +100,9 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 		}
 		if(owner.drawHandlerObject != null){
 			try {
-				owner.drawHandlerMethod.invoke(owner.drawHandlerObject, new Object[] { this, owner.data });
+				drawArgs[0] = this;
+				drawArgs[1] = owner.data;
+				owner.drawHandlerMethod.invoke(owner.drawHandlerObject, drawArgs);
 			} catch (Exception e) {
 				GMessenger.message(EXCP_IN_HANDLER,  
 						new Object[] {owner.drawHandlerObject, owner.drawHandlerMethodName, e} );
@@ -110,7 +117,10 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 	public void mouseEvent(MouseEvent event){
 		if(owner.mouseHandlerObject != null){
 			try {
-				owner.mouseHandlerMethod.invoke(owner.mouseHandlerObject, new Object[] { this, owner.data, event });
+				eventArgs[0] = this;
+				eventArgs[1] = owner.data;
+				eventArgs[2] = event;
+				owner.mouseHandlerMethod.invoke(owner.mouseHandlerObject, eventArgs);
 			} catch (Exception e) {
 				GMessenger.message(EXCP_IN_HANDLER,
 						new Object[] {owner.mouseHandlerObject, owner.mouseHandlerMethodName, e} );
@@ -125,7 +135,10 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 	public void keyEvent(KeyEvent event){
 		if(owner.keyHandlerObject != null){
 			try {
-				owner.keyHandlerMethod.invoke(owner.keyHandlerObject, new Object[] { this, owner.data, event });
+				eventArgs[0] = this;
+				eventArgs[1] = owner.data;
+				eventArgs[2] = event;
+				owner.keyHandlerMethod.invoke(owner.keyHandlerObject, eventArgs);
 			} catch (Exception e) {
 				GMessenger.message(EXCP_IN_HANDLER,
 						new Object[] {owner.keyHandlerObject, owner.keyHandlerMethodName, e} );
@@ -140,8 +153,9 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 	public void pre(){
 		if(owner.preHandlerObject != null){
 			try {
-				owner.preHandlerMethod.invoke(owner.preHandlerObject, 
-						new Object[] { owner.papplet, owner.data });
+				prepostArgs[0] = owner.papplet;
+				prepostArgs[1] = owner.data;
+				owner.preHandlerMethod.invoke(owner.preHandlerObject, prepostArgs);
 			} catch (Exception e) {
 				GMessenger.message(EXCP_IN_HANDLER, 
 						new Object[] {owner.preHandlerObject, owner.preHandlerMethodName, e} );
@@ -156,8 +170,9 @@ public class GWinApplet extends PApplet implements GConstants, GConstantsInterna
 	public void post(){
 		if(owner.postHandlerObject != null){
 			try {
-				owner.postHandlerMethod.invoke(owner.postHandlerObject, 
-						new Object[] { owner.papplet, owner.data });
+				prepostArgs[0] = owner.papplet;
+				prepostArgs[1] = owner.data;
+				owner.postHandlerMethod.invoke(owner.postHandlerObject, prepostArgs);
 			} catch (Exception e) {
 				GMessenger.message(EXCP_IN_HANDLER, 
 						new Object[] {owner.postHandlerObject, owner.postHandlerMethodName, e} );
@@ -1,10 +1,22 @@
 package g4p_controls;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import processing.core.PApplet;
 import processing.core.PConstants;
+import processing.core.PGraphics;
 import processing.core.PMatrix;
 import processing.core.PMatrix3D;
 import processing.event.KeyEvent;
@@ -32,17 +44,105 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	public boolean app_g_3d;
 	public PMatrix orgMatrix;
 	
-	public LinkedList<GAbstractControl> windowControls = new LinkedList<GAbstractControl>();
+	public ZOrderList windowControls = new ZOrderList();
 	// These next two lists are for controls that are to be added or remove since these
 	// actions must be performed outside the draw cycle to avoid concurrent modification
 	// exceptions when changing windowControls
 	public LinkedList<GAbstractControl> toRemove = new LinkedList<GAbstractControl>();
 	public LinkedList<GAbstractControl> toAdd = new LinkedList<GAbstractControl>();
+	// Identity sets with the same contents as windowControls, toRemove and toAdd
+	// so that checking for duplicates does not need a search
+	private final Set<GAbstractControl> members = newIdentitySet();
+	private final Set<GAbstractControl> pendingRemove = newIdentitySet();
+	private final Set<GAbstractControl> pendingAdd = newIdentitySet();
 	
 	// Set this to true if papplet is a GWinApplet objects i.e. part of a 
 	// Gwindow object
 	boolean isGWindow;
+	// True if this window is drawn off-screen (no cursor to change)
+	boolean offscreen = false;
 	
+	// The controls registered for each of the callback methods. These are
+	// rebuilt after controls have been added or removed.
+	private GAbstractControl[] drawControls = new GAbstractControl[0];
+	private GAbstractControl[] mouseControls = new GAbstractControl[0];
+	private GAbstractControl[] keyControls = new GAbstractControl[0];
+	private GAbstractControl[] preControls = new GAbstractControl[0];
+	private GAbstractControl[] postControls = new GAbstractControl[0];
+	// Set to true when the callback lists need rebuilding
+	boolean callbacksInvalid = true;
+	
+	// If true consecutive MOVE or DRAG events are merged and only the
+	// latest is dispatched (at the start of the next draw)
+	boolean coalesceMouse = false;
+	private MouseEvent pendingMouseEvent = null;
+	// Number of mouse events merged this frame and last frame
+	private int nbrMerged = 0;
+	int nbrMergedLastFrame = 0;
+	
+	// Broad-phase index used to find the controls under the mouse
+	final SpatialGrid grid = new SpatialGrid();
+	// Set to true when the index needs rebuilding
+	boolean indexInvalid = true;
+	// Grid indices of controls to receive the current mouse event
+	private int[] candidates = new int[16];
+	// Controls found under the mouse for the last MOVE/DRAG event
+	private GAbstractControl[] lastOver = new GAbstractControl[16];
+	private GAbstractControl[] nowOver = new GAbstractControl[16];
+	private int nbrLastOver = 0;
+	
+	// Set when something has changed that is not shown by a control's bufferInvalid
+	// flag e.g. input has arrived, a control has moved, been added or removed.
+	boolean damaged = true;
+	// True if the GUI had changed when G4P last drew the controls. Processing 
+	// calls the sketch's draw() before G4P's draw (and input is handled in
+	// between) so this is what a sketch asking at the start of its draw() 
+	// needs to know. It is replaced at the start of the next G4P draw.
+	boolean changedLastDraw = true;
+	// If true nothing is drawn when the GUI is unchanged
+	boolean skipIdleFrames = false;
+	// If true the controls are also drawn to a single image which is drawn
+	// instead of the controls when the GUI is unchanged
+	boolean useRetainedLayer = false;
+	private PGraphics layer = null;
+	
+	// If not null control buffers are stored here instead of being kept by each control
+	TextureAtlas atlas = null;
+	// A buffer is stored in the atlas when unchanged for this many frames
+	static final int ATLAS_STORE_DELAY = 30;
+	// Recycles the off-screen buffers of disposed controls
+	final BufferPool bufferPool;
+	// Controls hidden for longer than this (millis) release their buffers, 0 = never
+	int bufferReleaseDelay = 0;
+	private int lastReleaseCheck = 0;
+	
+	// Time (nanos) allowed each frame for redrawing invalid buffers, 0 = no limit.
+	// Once used up the refresh of other controls is deferred to a later frame.
+	long refreshBudget = 0;
+	// Controls used within this time (millis) are always refreshed
+	static final int RECENT_INTERACTION = 1000;
+	// Deferred controls are always refreshed after waiting this many frames
+	static final int MAX_DEFER_FRAMES = 30;
+	// Frames drawn (used to age deferred refreshes)
+	private int frameNo = 0;
+	// Time spent refreshing buffers this frame and last frame
+	private long refreshTime = 0;
+	long refreshTimeLastFrame = 0;
+	// Number of controls deferred this frame and last frame
+	private int nbrDeferred = 0;
+	int nbrDeferredLastFrame = 0;
+	// Total number of deferred refreshes
+	long totalDeferred = 0;
+	
+	// If true invalid buffers are redrawn on worker threads before the controls
+	// are drawn. The controls are still drawn on the animation thread.
+	boolean parallelRefresh = false;
+	// Number of buffers redrawn on worker threads last frame
+	int nbrParallelLastFrame = 0;
+	// Reused list of buffers to redraw on worker threads
+	private final ArrayList<Callable<Object>> refreshTasks = new ArrayList<Callable<Object>>();
+	// Shared by all windows, created when first needed
+	private static ExecutorService refreshPool = null;
 	
 	/**
 	 * Create an applet info object
@@ -50,6 +150,7 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	 */
 	public GWindowInfo (PApplet papplet) {
 		app = papplet;
+		bufferPool = new BufferPool(app);
 		// Is this applet part of a GWindow object
 		isGWindow = (app instanceof GWinApplet);
 		app_g_3d = app.g.is3D();
@@ -73,6 +174,50 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	 * The draw method registered with Processing
 	 */
 	public void draw(){
+		if(callbacksInvalid)
+			updateCallbackLists();
+		if(coalesceMouse){
+			flushMouseEvent();
+			nbrMergedLastFrame = nbrMerged;
+			nbrMerged = 0;
+		}
+		frameNo++;
+		refreshTimeLastFrame = refreshTime;
+		nbrDeferredLastFrame = nbrDeferred;
+		refreshTime = 0;
+		nbrDeferred = 0;
+		// If the GUI changed last time the sketch will have cleared the display
+		// so the controls must be drawn again this time
+		boolean newChange = isGuiChanged();
+		boolean changed = newChange || changedLastDraw;
+		changedLastDraw = newChange;
+		damaged = false;
+		if(!changed && skipIdleFrames)
+			return;
+		if(parallelRefresh)
+			refreshBuffersInParallel();
+		// The retained layer is only available for 2D renderers and cannot be used
+		// if the sketch is recording
+		boolean record = false;
+		if(useRetainedLayer && !app_g_3d && (app.recorder == null || app.recorder == layer)){
+			if(layer == null || layer.width != app.width || layer.height != app.height){
+				layer = app.createGraphics(app.width, app.height, JAVA2D);
+				changed = true;
+			}
+			if(!changed){
+				app.pushStyle();
+				app.imageMode(PApplet.CORNER);
+				app.noTint();
+				app.image(layer, 0, 0);
+				app.popStyle();
+				return;
+			}
+			// Everything drawn on the display will also be drawn on the layer
+			layer.beginDraw();
+			layer.clear();
+			app.recorder = layer;
+			record = true;
+		}
 		app.pushMatrix();
 		if(app_g_3d) {
 			app.hint(PConstants.DISABLE_DEPTH_TEST);
@@ -81,13 +226,215 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 			// Apply the original Processing transformation matrix.
 			app.applyMatrix(orgMatrix);
 		}
-		for(GAbstractControl control : windowControls){
-			if( (control.registeredMethods & DRAW_METHOD) == DRAW_METHOD )
-				control.draw();
-		}		
+		for(GAbstractControl control : drawControls)
+			control.draw();
 		if(app_g_3d)
 			app.hint(PConstants.ENABLE_DEPTH_TEST);
 		app.popMatrix();
+		if(record){
+			app.recorder = null;
+			layer.endDraw();
+		}
+	}
+
+	/**
+	 * Update a control's buffer unless the refresh budget for this frame has
+	 * been used up. <br>
+	 * The control under the cursor, the control with focus and controls used
+	 * recently are always refreshed as are controls without an old image to 
+	 * show. Deferred controls keep their buffer invalid so the GUI stays damaged
+	 * until they catch up.
+	 * 
+	 * @param control the control being drawn
+	 */
+	void refreshBuffer(GAbstractControl control){
+		if(control.bufferInvalid){
+			int now = app.millis();
+			if(control == GAbstractControl.cursorIsOver || control == GAbstractControl.focusIsWith)
+				control.lastInteraction = now;
+			boolean urgent = (control.lastInteraction >= 0 && now - control.lastInteraction < RECENT_INTERACTION)
+					|| (control.buffer == null && (control.atlasSlot == null || atlas == null))
+					|| (control.deferredSince >= 0 && frameNo - control.deferredSince >= MAX_DEFER_FRAMES);
+			if(!urgent && refreshTime >= refreshBudget){
+				if(control.deferredSince < 0)
+					control.deferredSince = frameNo;
+				nbrDeferred++;
+				totalDeferred++;
+				return;
+			}
+			control.deferredSince = -1;
+		}
+		long start = System.nanoTime();
+		control.updateBuffer();
+		refreshTime += System.nanoTime() - start;
+	}
+
+	/**
+	 * Redraw the buffers of all shown controls with invalid buffers on worker
+	 * threads and wait for them to finish. Each control draws into its own 
+	 * buffer so they can be updated at the same time. Controls that must be 
+	 * updated on the animation thread are left for draw(), as are controls 
+	 * whose updateBuffer() does not clear their bufferInvalid flag since 
+	 * they would be picked up every frame. <br>
+	 * Any exception thrown while updating a buffer is rethrown here.
+	 */
+	private void refreshBuffersInParallel(){
+		for(GAbstractControl control : windowControls)
+			if(control.parallelRefresh && control.bufferInvalid && control.isShown())
+				refreshTasks.add(new RefreshTask(control));
+		nbrParallelLastFrame = 0;
+		// Not worth handing over a single control
+		if(refreshTasks.size() < 2){
+			refreshTasks.clear();
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			for(Future<Object> result : refreshPool().invokeAll(refreshTasks))
+				result.get();
+			for(Callable<Object> task : refreshTasks){
+				GAbstractControl control = ((RefreshTask) task).control;
+				if(control.bufferInvalid)
+					control.parallelRefresh = false;
+				else
+					nbrParallelLastFrame++;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if(cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+		finally {
+			refreshTasks.clear();
+			refreshTime += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Get the thread pool used to update buffers, one thread per processor.
+	 */
+	private static synchronized ExecutorService refreshPool(){
+		if(refreshPool == null){
+			refreshPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), 
+					new ThreadFactory(){
+				public Thread newThread(Runnable r){
+					Thread t = new Thread(r, "G4P buffer refresh");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return refreshPool;
+	}
+
+	/**
+	 * Updates the buffer of a single control on a worker thread.
+	 */
+	private static class RefreshTask implements Callable<Object> {
+		final GAbstractControl control;
+
+		RefreshTask(GAbstractControl control){
+			this.control = control;
+		}
+
+		public Object call() {
+			control.updateBuffer();
+			return null;
+		}
+	}
+
+	/**
+	 * See if any part of the GUI has changed since it was last drawn.
+	 * 
+	 * @return true if the controls need to be drawn again
+	 */
+	boolean isGuiChanged(){
+		if(damaged)
+			return true;
+		for(GAbstractControl control : windowControls)
+			if(control.isDamaged())
+				return true;
+		return false;
+	}
+
+	/**
+	 * Set whether the controls should be drawn when the GUI is unchanged.
+	 */
+	void setSkipIdleFrames(boolean skip){
+		skipIdleFrames = skip;
+		damaged = true;
+	}
+
+	/**
+	 * Release the buffers of controls that have been hidden for longer than 
+	 * the release delay. Controls are checked at most once a second.
+	 */
+	private void releaseHiddenBuffers(){
+		int now = app.millis();
+		if(now - lastReleaseCheck < Math.min(1000, bufferReleaseDelay))
+			return;
+		lastReleaseCheck = now;
+		for(GAbstractControl control : windowControls){
+			if(!control.bufferReleasable)
+				continue;
+			if(control.isShown())
+				control.hiddenSince = -1;
+			else if(control.hiddenSince < 0)
+				control.hiddenSince = now;
+			else if(now - control.hiddenSince >= bufferReleaseDelay)
+				control.releaseBuffer();
+		}
+	}
+
+	/**
+	 * Copy the buffers of controls that have not changed for a while into the
+	 * texture atlas and release them. Controls that are changing keep their 
+	 * buffer so it is not recreated for every change.
+	 */
+	private void storeStableBuffers(){
+		for(GAbstractControl control : windowControls){
+			if(!control.bufferReleasable || control.buffer == null)
+				continue;
+			if(control.bufferChanged){
+				control.bufferChanged = false;
+				control.stableFrames = 0;
+			}
+			else if(!control.bufferInvalid && ++control.stableFrames >= ATLAS_STORE_DELAY){
+				control.storeInAtlas(this);
+				control.stableFrames = 0;
+			}
+		}
+	}
+
+	/**
+	 * Turn the texture atlas for control buffers on or off. When turned off
+	 * the controls will create their own buffers again.
+	 */
+	void setBufferAtlas(boolean use){
+		if(use && atlas == null)
+			atlas = new TextureAtlas(app);
+		else if(!use && atlas != null){
+			atlas.dispose();
+			atlas = null;
+		}
+	}
+
+	/**
+	 * Turn the retained GUI layer on or off. This can be used with the texture
+	 * atlas and buffer pool since atlas slots are also drawn on the layer.
+	 */
+	void setRetainedLayer(boolean retain){
+		useRetainedLayer = retain;
+		if(!retain)
+			layer = null;
+		damaged = true;
 	}
 
 	/**
@@ -97,50 +444,199 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	 * 
 	 * Should call the user defined method for the  the draw method for the actual GWindow object.
 	 * 
+	 * If mouse event coalescing is on then MOVE and DRAG events are held
+	 * back so that only the latest is dispatched. Any other event causes
+	 * the held event to be dispatched first so the order is kept.
+	 * 
 	 * @param event
 	 */
 	public void mouseEvent(MouseEvent event){
+		if(coalesceMouse){
+			switch(event.getAction()){
+			case MouseEvent.MOVE:
+			case MouseEvent.DRAG:
+				if(pendingMouseEvent != null){
+					if(pendingMouseEvent.getAction() == event.getAction())
+						nbrMerged++;
+					else
+						dispatchMouseEvent(pendingMouseEvent);
+				}
+				pendingMouseEvent = event;
+				return;
+			default:
+				flushMouseEvent();
+			}
+		}
+		dispatchMouseEvent(event);
+	}
+
+	/**
+	 * Dispatch any MOVE or DRAG event being held back.
+	 */
+	void flushMouseEvent(){
+		if(pendingMouseEvent != null){
+			MouseEvent event = pendingMouseEvent;
+			pendingMouseEvent = null;
+			dispatchMouseEvent(event);
+		}
+	}
+
+	/**
+	 * Send the mouse event to the window and the controls.
+	 * 
+	 * @param event
+	 */
+	private void dispatchMouseEvent(MouseEvent event){
+		damaged = true;
+		if(callbacksInvalid)
+			updateCallbackLists();
 		if(isGWindow)
 			((GWinApplet)app).mouseEvent(event);
-		for(GAbstractControl control : windowControls){
+		switch(event.getAction()){
+		case MouseEvent.MOVE:
+		case MouseEvent.DRAG:
+			dispatchToCandidates(event);
+			break;
+		default:
+			// Less frequent events go to all controls
+			for(GAbstractControl control : mouseControls)
+				control.mouseEvent(event);
+		}
+	}
+
+	/**
+	 * Send the mouse event to the controls whose bounds contain the mouse
+	 * position, the controls that contained it for the last event (so they
+	 * can react to the mouse leaving) and the control with focus. <br>
+	 * The controls get the event in the same order as they would if it
+	 * was sent to every control.
+	 * 
+	 * @param event
+	 */
+	private void dispatchToCandidates(MouseEvent event){
+		if(indexInvalid){
+			grid.rebuild(windowControls, app.width, app.height);
+			indexInvalid = false;
+			if(candidates.length < grid.size()){
+				candidates = new int[grid.size()];
+				lastOver = Arrays.copyOf(lastOver, grid.size());
+				nowOver = new GAbstractControl[grid.size()];
+			}
+		}
+		int n = grid.query(app.mouseX, app.mouseY, candidates);
+		// Remember the controls now under the mouse
+		int nbrNowOver = n;
+		for(int i = 0; i < n; i++)
+			nowOver[i] = grid.get(candidates[i]);
+		// Include the controls under the mouse last time so they can
+		// react to the mouse leaving them
+		for(int i = 0; i < nbrLastOver; i++){
+			if(grid.contains(lastOver[i]))
+				n = insertCandidate(lastOver[i].gridIndex, n);
+			lastOver[i] = null;
+		}
+		GAbstractControl[] over = lastOver;
+		lastOver = nowOver;
+		nowOver = over;
+		nbrLastOver = nbrNowOver;
+		// Include the control with focus if it belongs to this window
+		GAbstractControl focus = GAbstractControl.focusIsWith;
+		if(grid.contains(focus))
+			n = insertCandidate(focus.gridIndex, n);
+		for(int i = 0; i < n; i++){
+			GAbstractControl control = grid.get(candidates[i]);
 			if((control.registeredMethods & MOUSE_METHOD) == MOUSE_METHOD)
 				control.mouseEvent(event);
 		}
 	}
 
 	/**
-	 * The key method registered with Processing
+	 * Insert a grid index into the candidates list keeping it in 
+	 * ascending order and avoiding duplicates.
+	 * 
+	 * @return the new number of candidates
+	 */
+	private int insertCandidate(int idx, int n){
+		int pos = n;
+		while(pos > 0 && candidates[pos-1] > idx)
+			pos--;
+		if(pos > 0 && candidates[pos-1] == idx)
+			return n;
+		System.arraycopy(candidates, pos, candidates, pos + 1, n - pos);
+		candidates[pos] = idx;
+		return n + 1;
+	}
+
+	/**
+	 * Turn mouse event coalescing on or off. Turning it off dispatches
+	 * any event being held back.
+	 * 
+	 * @param coalesce
+	 */
+	void setMouseCoalescing(boolean coalesce){
+		if(!coalesce)
+			flushMouseEvent();
+		coalesceMouse = coalesce;
+		nbrMerged = nbrMergedLastFrame = 0;
+	}
+
+	/**
+	 * Called when a control has been added, removed, moved or rotated so
+	 * the mouse index must be rebuilt before it is next used.
+	 */
+	void invalidateIndex(){
+		indexInvalid = true;
+		damaged = true;
+	}
+
+	/**
+	 * The key method registered with Processing. <br>
+	 * Key events are only sent to the control with focus and controls that
+	 * have asked for all key events, so the cost of a key stroke does not 
+	 * depend on the number of text controls in the window.
 	 */	
 	public void keyEvent(KeyEvent event) {
+		// Bring the cursor and focus up to date before handling the key
+		if(coalesceMouse)
+			flushMouseEvent();
+		damaged = true;
+		if(callbacksInvalid)
+			updateCallbackLists();
 		if(isGWindow)
 			((GWinApplet)app).keyEvent(event);
-		for(GAbstractControl control : windowControls){
-			if( (control.registeredMethods & KEY_METHOD) == KEY_METHOD)
-				control.keyEvent(event);
-		}			
+		// The control with focus gets the event first then any
+		// controls listening to all key events
+		GAbstractControl focus = GAbstractControl.focusIsWith;
+		if(focus != null && focus.winApp == app 
+				&& (focus.registeredMethods & (KEY_METHOD | KEY_GLOBAL_METHOD)) == KEY_METHOD)
+			focus.keyEvent(event);
+		for(GAbstractControl control : keyControls)
+			control.keyEvent(event);
 	}
 
 	/**
 	 * The pre method registered with Processing
 	 */
 	public void pre(){
+		if(callbacksInvalid)
+			updateCallbackLists();
 		if(GAbstractControl.controlToTakeFocus != null && GAbstractControl.controlToTakeFocus.getPApplet() == app){
 			GAbstractControl.controlToTakeFocus.setFocus(true);
 			GAbstractControl.controlToTakeFocus = null;
 		}
 		if(isGWindow)
 			((GWinApplet)app).pre();
-		for(GAbstractControl control : windowControls){
-			if( (control.registeredMethods & PRE_METHOD) == PRE_METHOD)
-				control.pre();
-		}
+		for(GAbstractControl control : preControls)
+			control.pre();
 	}
 
 	/**
 	 * The post method registered with Processing
 	 */
 	public void post(){
-		if(G4P.cursorChangeEnabled){
+		if(callbacksInvalid)
+			updateCallbackLists();
+		if(G4P.cursorChangeEnabled && !offscreen){
 			if(GAbstractControl.cursorIsOver != null ) //&& GAbstractControl.cursorIsOver.getPApplet() == app)
 				app.cursor(GAbstractControl.cursorIsOver.cursorOver);			
 			else 
@@ -148,16 +644,22 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 		}
 		if(isGWindow)
 			((GWinApplet)app).post();
-		for(GAbstractControl control : windowControls){
-			if( (control.registeredMethods & POST_METHOD) == POST_METHOD)
-				control.post();
-		}
+		for(GAbstractControl control : postControls)
+			control.post();
+		if(bufferReleaseDelay > 0)
+			releaseHiddenBuffers();
+		if(atlas != null)
+			storeStableBuffers();
 		// =====================================================================================================
 		// =====================================================================================================
 		//  This is where components are removed or added to the window to avoid concurrent access violations 
 		// =====================================================================================================
 		// =====================================================================================================
 		synchronized (this) {
+			if(toRemove.isEmpty() && toAdd.isEmpty())
+				return;
+			long start = System.nanoTime();
+			int nbrRemoved = toRemove.size(), nbrAdded = 0;
 		// Dispose of any unwanted controls
 			if(!toRemove.isEmpty()){
 				for(GAbstractControl control : toRemove){
@@ -165,7 +667,8 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 					if(GAbstractControl.focusIsWith == control)
 						control.loseFocus(null);
 					// Clear control resources
-					control.buffer = null;
+					control.disposeBuffers(this);
+					ImageManager.release(control);
 					if(control.parent != null){
 						control.parent.children.remove(control);
 						control.parent = null;
@@ -177,20 +680,90 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 					control.eventHandlerObject = null;
 					control.eventHandlerMethod = null;
 					control.winApp = null;
-					windowControls.remove(control);
-					System.gc();			
+				}
+				windowControls.removeAll(pendingRemove);
+				members.removeAll(pendingRemove);
+				// Do not add controls that have already been removed
+				if(!toAdd.isEmpty()){
+					toAdd.removeAll(pendingRemove);
+					pendingAdd.removeAll(pendingRemove);
 				}
 				toRemove.clear();
+				pendingRemove.clear();
+				damaged = true;
+				indexInvalid = true;
+				callbacksInvalid = true;
 			}
 			if(!toAdd.isEmpty()){
 				for(GAbstractControl control : toAdd)
 					windowControls.add(control);
+				members.addAll(pendingAdd);
+				nbrAdded = toAdd.size();
 				toAdd.clear();
-				Collections.sort(windowControls, G4P.zorder);
+				pendingAdd.clear();
+				damaged = true;
+				indexInvalid = true;
+				callbacksInvalid = true;
+			}
+			if(G4P.controlsListener != null){
+				try {
+					G4P.controlsListener.controlsUpdated(app, nbrAdded, nbrRemoved, System.nanoTime() - start);
+				}
+				catch(Exception e){
+					GMessenger.message(EXCP_IN_HANDLER,  
+							new Object[] {G4P.controlsListener, "controlsUpdated", new InvocationTargetException(e) } );
+				}
 			}
 		}
 	}
 
+	private static Set<GAbstractControl> newIdentitySet(){
+		return Collections.newSetFromMap(new IdentityHashMap<GAbstractControl, Boolean>());
+	}
+
+	/**
+	 * Rebuild the lists of controls registered for each callback method
+	 * so that each callback only visits the controls that need it.
+	 */
+	private void updateCallbackLists(){
+		drawControls = controlsFor(DRAW_METHOD);
+		mouseControls = controlsFor(MOUSE_METHOD);
+		keyControls = controlsFor(KEY_METHOD | KEY_GLOBAL_METHOD);
+		preControls = controlsFor(PRE_METHOD);
+		postControls = controlsFor(POST_METHOD);
+		callbacksInvalid = false;
+	}
+
+	/**
+	 * Get the controls registered for a callback method in the same 
+	 * order as windowControls.
+	 * 
+	 * @param method e.g. DRAW_METHOD
+	 * @return an array of controls (never null)
+	 */
+	private GAbstractControl[] controlsFor(int method){
+		int n = 0;
+		for(GAbstractControl control : windowControls){
+			if((control.registeredMethods & method) == method)
+				n++;
+		}
+		GAbstractControl[] list = new GAbstractControl[n];
+		n = 0;
+		for(GAbstractControl control : windowControls){
+			if((control.registeredMethods & method) == method)
+				list[n++] = control;
+		}
+		return list;
+	}
+
+	/**
+	 * Called when the methods registered by a control have changed 
+	 * e.g. it has been added to a panel and no longer draws itself.
+	 */
+	void invalidateCallbacks(){
+		callbacksInvalid = true;
+	}
+
 	/**
 	 * Dispose of this WIndow. <br>
 	 * First unregister for event handling then clear list of controls
@@ -204,6 +777,12 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 		app.unregisterMethod("mouseEvent",this);
 		app.unregisterMethod("keyEvent",this);
 		windowControls.clear();
+		members.clear();
+		pendingMouseEvent = null;
+		layer = null;
+		updateCallbackLists();
+		grid.rebuild(windowControls, 0, 0);
+		nbrLastOver = 0;
 	}
 	
 	/**
@@ -214,10 +793,23 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	 */
 	synchronized void addControl(GAbstractControl control){
 		// Make sure we avoid duplicates
-		if(!windowControls.contains(control) && !toAdd.contains(control))
+		if(!members.contains(control) && pendingAdd.add(control))
 			toAdd.add(control);
 	}
 
+	/**
+	 * Reposition a control in the window's z-order after its z value
+	 * has changed.
+	 * @param control
+	 */
+	synchronized void reorder(GAbstractControl control){
+		if(windowControls.remove(control)){
+			windowControls.add(control);
+			indexInvalid = true;
+			callbacksInvalid = true;
+		}
+	}
+
 	/**
 	 * If a control is to be removed to this window then add the control
 	 * to the toAdd list. The control will actually be added during the 
@@ -226,10 +818,21 @@ public class GWindowInfo implements PConstants, GConstants, GConstantsInternal {
 	 */
 	synchronized void removeControl(GAbstractControl control){
 		// Make sure we avoid duplicates
-		if(windowControls.contains(control) && !toRemove.contains(control))
+		if((members.contains(control) || pendingAdd.contains(control)) && pendingRemove.add(control))
 			toRemove.add(control);
 	}
 
+	/**
+	 * Mark all the controls in this window, including any waiting to be 
+	 * added, for disposal.
+	 */
+	synchronized void removeAllControls(){
+		for(GAbstractControl control : windowControls)
+			control.markForDisposal();
+		for(GAbstractControl control : toAdd.toArray(new GAbstractControl[toAdd.size()]))
+			control.markForDisposal();
+	}
+
 	void setColorScheme(int cs){
 		for(GAbstractControl control : windowControls)
 			control.setLocalColorScheme(cs);
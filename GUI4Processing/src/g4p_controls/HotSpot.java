@@ -1,5 +1,7 @@
 package g4p_controls;
 
+import java.util.WeakHashMap;
+
 import processing.core.PApplet;
 import processing.core.PImage;
 
@@ -56,8 +58,18 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 	 */
 	static class HSarc extends HotSpot {
 
+		// Points this close (sine of angle) to either edge are tested
+		// using the angle so that rounding gives the same result
+		private static final double EDGE_EPS2 = 1e-8;
+
 		public float sa, ea, r, r2;
 
+		// Edge vectors and sweep for the angles last used
+		private float edgeSA = Float.NaN, edgeEA = Float.NaN;
+		private double sx, sy, ex, ey;
+		private float sweep;
+		private boolean useEdges;
+
 		public HSarc(int id, float x, float y, float r, float sa, float ea) {
 			super(id);
 			this.x = x;
@@ -66,15 +78,57 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 			this.r2 = r * r;
 			this.sa = sa;
 			this.ea = ea;
+			calcEdges();
 		}
 
+		/**
+		 * Calculate the start and end edge vectors. The edge test is only
+		 * used when the start angle is in the range 0-360 (as used by GKnob)
+		 * otherwise the angle is always calculated.
+		 */
+		private void calcEdges(){
+			edgeSA = sa;
+			edgeEA = ea;
+			sweep = ea - sa;
+			useEdges = sa >= 0 && sa < 360 && sweep >= 0;
+			double a = Math.toRadians(sa);
+			sx = Math.cos(a);
+			sy = Math.sin(a);
+			a = Math.toRadians(ea);
+			ex = Math.cos(a);
+			ey = Math.sin(a);
+		}
 
 		@Override
 		public boolean contains(float px, float py) {
-			if((px-x)*(px-x) + (py-y)*(py-y) > r2)
+			float dx = px - x, dy = py - y;
+			float d2 = dx*dx + dy*dy;
+			if(d2 > r2)
 				return false;
-			// Now check angle
-			float a = (float) Math.toDegrees(Math.atan2(py-y, px-x));
+			if(sa != edgeSA || ea != edgeEA)
+				calcEdges();
+			if(!useEdges)
+				return containsAngle(dx, dy);
+			// Cross products give the side of each edge the point is on
+			double cs = sx * dy - sy * dx;
+			if(cs * cs <= EDGE_EPS2 * d2)
+				return containsAngle(dx, dy);
+			if(sweep >= 360)
+				return true;
+			double ce = dx * ey - dy * ex;
+			if(ce * ce <= EDGE_EPS2 * d2)
+				return containsAngle(dx, dy);
+			if(sweep <= 180)
+				return cs > 0 && ce > 0;
+			// Wide arc so outside only if between the end and start edges
+			return cs > 0 || ce > 0;
+		}
+
+		/**
+		 * Test using the angle of the point from the centre.
+		 */
+		private boolean containsAngle(float dx, float dy){
+			float a = (float) Math.toDegrees(Math.atan2(dy, dx));
 			if(a < 0) a += 360;
 			if(a < sa) a += 360;
 			return (a >= sa && a <= ea);
@@ -139,21 +193,23 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 	static class HSmask extends HotSpot {
 
 		private PImage mask = null;
+		private HitMask hits = null;
 
 		protected HSmask(int id, PImage mask) {
 			super(id);
 			this.mask = mask;
+			if(mask != null)
+				hits = HitMask.forMask(mask);
 		}
 
 		@Override
 		public boolean contains(float px, float py) {
-			if(mask != null){
-				int pixel = mask.get((int)px, (int)py);
-				float alpha = (pixel >> 24) & 0xff;
-				// A > 0 and RGB = 0 is transparent
-				if(alpha > 0 && (pixel & 0x00ffffff) == 0){
-					return true;
-				}
+			if(hits != null){
+				// Recalculate if the mask image has been resized (its pixels
+				// are never changed in place, see HitMask)
+				if(hits.width != mask.width || hits.height != mask.height)
+					hits = HitMask.forMask(mask);
+				return hits.get((int)px, (int)py);
 			}
 			return false;
 		}
@@ -172,12 +228,17 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 	static class HSalpha extends HotSpot {
 
 		private PImage image = null;
+		private HitMask hits = null;
 		
 		private int offX, offY;
+		// The part of the image used (the whole image unless a tile)
+		private int tileX = 0, tileY = 0, tileW = -1, tileH = -1;
 		
 		protected HSalpha(int id, float x, float y, PImage image, int imageMode) {
 			super(id);
 			this.image = image;
+			if(image != null)
+				hits = HitMask.forAlpha(image);
 			this.x = x;
 			this.y = y;
 			if(imageMode == PApplet.CENTER){
@@ -188,13 +249,39 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 				offX = offY = 0;
 		}
 
+		protected HSalpha(int id, float x, float y, ImageTile tile, int imageMode) {
+			this(id, x, y, tile.source, PApplet.CORNER);
+			setTile(tile);
+			if(imageMode == PApplet.CENTER){
+				offX = -tile.width/2;
+				offY = -tile.height/2;
+			}
+		}
+
+		private void setTile(ImageTile tile){
+			tileX = tile.x;
+			tileY = tile.y;
+			tileW = tile.width;
+			tileH = tile.height;
+		}
+
 		/**
 		 * If used the parameters must be in the order x, y then image. <br>
 		 */
 		public void adjust(Object ... arguments){
 			switch(arguments.length){
 			case 3:
-				image = (PImage) arguments[2];
+				if(arguments[2] instanceof ImageTile){
+					ImageTile tile = (ImageTile) arguments[2];
+					image = tile.source;
+					setTile(tile);
+				}
+				else {
+					image = (PImage) arguments[2];
+					tileX = tileY = 0;
+					tileW = tileH = -1;
+				}
+				hits = (image == null) ? null : HitMask.forAlpha(image);
 			case 2:
 				y = Float.valueOf(arguments[1].toString());
 			case 1:
@@ -204,12 +291,20 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 
 		@Override
 		public boolean contains(float px, float py) {
-			if(image != null){
+			if(hits != null){
+				// Recalculate if the image has been resized (its pixels are
+				// never changed in place, see HitMask)
+				if(hits.width != image.width || hits.height != image.height)
+					hits = HitMask.forAlpha(image);
 				int imgX = Math.round(px - x) - offX;
 				int imgY = Math.round(py - y) - offY;
-				float alpha = (image.get(imgX, imgY) >> 24) & 0xff;
-				if(alpha >  ALPHA_PICK)
-					return true;
+				if(tileW >= 0){
+					if(imgX < 0 || imgY < 0 || imgX >= tileW || imgY >= tileH)
+						return false;
+					imgX += tileX;
+					imgY += tileY;
+				}
+				return hits.get(imgX, imgY);
 			}
 			return false;
 		}
@@ -219,4 +314,102 @@ abstract class HotSpot implements GConstants, Comparable<HotSpot> {
 		}
 
 	}
+
+	/**
+	 * A packed bitset of the pixels in an image that count as a hit. It is 
+	 * calculated once per image so that hit testing is a single bit lookup
+	 * rather than a call to PImage.get(). <br>
+	 * 
+	 * Hotspots using the same image share the same bitset. <br>
+	 * 
+	 * The bitset is only recalculated if the image is resized so the pixels 
+	 * of an image must not be changed once it is used for a hotspot. This is 
+	 * true of the images the library uses for hotspots, they come from the 
+	 * ImageManager cache (whose images must not be changed) or are private 
+	 * to the control, e.g. a button mask. The PImage modified flag can't be 
+	 * used instead because the renderer clears it when the image is drawn.
+	 * 
+	 * @author Peter Lager
+	 */
+	static final class HitMask {
+
+		// Bitsets already calculated for mask and alpha images
+		private static final WeakHashMap<PImage, HitMask> maskHits = new WeakHashMap<PImage, HitMask>();
+		private static final WeakHashMap<PImage, HitMask> alphaHits = new WeakHashMap<PImage, HitMask>();
+
+		final int width, height;
+		private final long[] bits;
+
+		private HitMask(int width, int height){
+			this.width = width;
+			this.height = height;
+			bits = new long[(width * height + 63) >>> 6];
+		}
+
+		/**
+		 * Get the hit mask for a mask image. Non-transparent black pixels are hits.
+		 */
+		static synchronized HitMask forMask(PImage img){
+			HitMask hm = maskHits.get(img);
+			if(hm == null || hm.width != img.width || hm.height != img.height){
+				hm = new HitMask(img.width, img.height);
+				img.loadPixels();
+				for(int i = 0; i < hm.width * hm.height; i++){
+					int pixel = argb(img, i);
+					// A > 0 and RGB = 0 is transparent
+					if(((pixel >> 24) & 0xff) > 0 && (pixel & 0x00ffffff) == 0)
+						hm.set(i);
+				}
+				maskHits.put(img, hm);
+			}
+			return hm;
+		}
+
+		/**
+		 * Get the hit mask for an image. Pixels with an alpha value greater
+		 * than ALPHA_PICK are hits.
+		 */
+		static synchronized HitMask forAlpha(PImage img){
+			HitMask hm = alphaHits.get(img);
+			if(hm == null || hm.width != img.width || hm.height != img.height){
+				hm = new HitMask(img.width, img.height);
+				img.loadPixels();
+				for(int i = 0; i < hm.width * hm.height; i++){
+					if(((argb(img, i) >> 24) & 0xff) > ALPHA_PICK)
+						hm.set(i);
+				}
+				alphaHits.put(img, hm);
+			}
+			return hm;
+		}
+
+		/**
+		 * Get a pixel colour the same way as PImage.get(x, y)
+		 */
+		private static int argb(PImage img, int i){
+			switch(img.format){
+			case PApplet.RGB:
+				return img.pixels[i] | 0xff000000;
+			case PApplet.ALPHA:
+				return (img.pixels[i] << 24) | 0xffffff;
+			default:
+				return img.pixels[i];
+			}
+		}
+
+		private void set(int i){
+			bits[i >>> 6] |= (1L << i);
+		}
+
+		/**
+		 * See if a pixel position is a hit. Positions outside the image
+		 * are never a hit.
+		 */
+		boolean get(int px, int py){
+			if(px < 0 || py < 0 || px >= width || py >= height)
+				return false;
+			int i = py * width + px;
+			return (bits[i >>> 6] & (1L << i)) != 0;
+		}
+	}
 }
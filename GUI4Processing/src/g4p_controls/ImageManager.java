@@ -1,6 +1,20 @@
 package g4p_controls;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import processing.core.PApplet;
 import processing.core.PImage;
@@ -9,35 +23,461 @@ import processing.core.PImage;
  * This class is used to load bitmap files and create images. <br>
  * 
  * Although there maybe multiple requests for a particular bitmap file only
- * one PImage is created for each file.
+ * one PImage is created for each file. <br>
+ * 
+ * Images used by controls are reference counted and the references are 
+ * released when the control is disposed of. If the cache grows beyond its 
+ * size limit the least recently used images that are not being used by any 
+ * control are forgotten. <br>
+ * 
+ * Cached images are shared so they must not be changed. Controls that need 
+ * an image of a different size get a resized copy which is itself cached. <br>
+ * 
+ * Images can be preloaded in the background, e.g. in setup() before creating
+ * the controls that use them. Controls created while the images are still 
+ * loading will display them when they are ready.
  * 
  * @author Peter Lager
  *
  */
 public class ImageManager {
 
-	private static HashMap<String, PImage> textures = new HashMap<String, PImage>();
-	
+	/**
+	 * A cached image and the number of controls using it.
+	 */
+	private static class Entry {
+		final PImage image;
+		final long bytes;
+		int refs = 0;
+		// Preloaded and not used yet so don't forget it
+		boolean pinned = false;
+
+		Entry(PImage image){
+			this.image = image;
+			bytes = 4L * image.width * image.height;
+		}
+	}
+
+	// Access ordered so the first entry is the least recently used
+	private static final LinkedHashMap<String, Entry> textures = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	private static long maxBytes = 64L * 1024 * 1024;
+	private static long nbrBytes = 0;
+	private static long nbrHits = 0, nbrMisses = 0, nbrEvicted = 0;
+
+	// Images being loaded in the background
+	private static final HashMap<String, Future<PImage>> pending = new HashMap<String, Future<PImage>>();
+	private static ExecutorService loader = null;
+	private static final int MAX_LOADER_THREADS = 4;
+
+	/**
+	 * Load an image file in the background. If the image has already been 
+	 * loaded, or is being loaded, then no new work is done. <br>
+	 * Later requests for the image will use the cached image (waiting for it 
+	 * to finish loading if necessary). <br>
+	 * A preloaded image is kept in the cache, even if this takes the cache 
+	 * over its size limit, until it is used by a control, loaded with 
+	 * loadImage or its future is read.
+	 * 
+	 * @param app
+	 * @param filename
+	 * @return a future for the image (its value is null if the file can't be loaded)
+	 */
+	public static synchronized Future<PImage> preloadImage(PApplet app, String filename){
+		Future<PImage> future = pending.get(filename);
+		if(future != null)
+			future = new Preload(filename, future);
+		else {
+			Entry entry = textures.get(filename);
+			if(entry != null){
+				// Already loaded so return a completed future
+				final PImage image = entry.image;
+				FutureTask<PImage> done = new FutureTask<PImage>(new Callable<PImage>(){
+					public PImage call(){
+						return image;
+					}
+				});
+				done.run();
+				future = done;
+			}
+			else {
+				nbrMisses++;
+				if(loader == null)
+					loader = Executors.newFixedThreadPool(Math.min(MAX_LOADER_THREADS, Runtime.getRuntime().availableProcessors()), 
+							new ThreadFactory(){
+						public Thread newThread(Runnable r){
+							Thread t = new Thread(r, "G4P image loader");
+							t.setDaemon(true);
+							return t;
+						}
+					});
+				future = loader.submit(new Loader(app, filename, true));
+				pending.put(filename, future);
+				future = new Preload(filename, future);
+			}
+		}
+		return future;
+	}
+
+	/**
+	 * The future returned for a preloaded image. Reading the image unpins it 
+	 * so it can be forgotten when the cache is trimmed.
+	 */
+	private static class Preload implements Future<PImage> {
+		final String filename;
+		final Future<PImage> future;
+
+		Preload(String filename, Future<PImage> future){
+			this.filename = filename;
+			this.future = future;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning){
+			boolean cancelled = future.cancel(mayInterruptIfRunning);
+			if(cancelled)
+				removePending(filename, future);
+			return cancelled;
+		}
+
+		public boolean isCancelled(){
+			return future.isCancelled();
+		}
+
+		public boolean isDone(){
+			return future.isDone();
+		}
+
+		public PImage get() throws InterruptedException, ExecutionException {
+			PImage image = future.get();
+			unpin(filename);
+			return image;
+		}
+
+		public PImage get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			PImage image = future.get(timeout, unit);
+			unpin(filename);
+			return image;
+		}
+	}
+
+	private static synchronized void removePending(String filename, Future<PImage> future){
+		if(pending.get(filename) == future)
+			pending.remove(filename);
+	}
+
+	private static synchronized void unpin(String filename){
+		Entry entry = textures.get(filename);
+		if(entry != null && entry.pinned){
+			entry.pinned = false;
+			trim();
+		}
+	}
+
+	/**
+	 * Load a number of image files in the background.
+	 * 
+	 * @param app
+	 * @param filenames
+	 * @return a list of futures for the images (same order as the filenames)
+	 */
+	public static List<Future<PImage>> preloadImages(PApplet app, String... filenames){
+		List<Future<PImage>> futures = new ArrayList<Future<PImage>>(filenames.length);
+		for(String filename : filenames)
+			futures.add(preloadImage(app, filename));
+		return futures;
+	}
+
+	/**
+	 * See if an image file is still being loaded in the background.
+	 * @param filename
+	 * @return true if the image is not ready yet
+	 */
+	public static synchronized boolean isLoading(String filename){
+		return pending.containsKey(filename);
+	}
+
+	/**
+	 * Get an image file making sure it is in the cache. The file is decoded 
+	 * without holding the cache lock so other windows can still use the cache
+	 * while it loads. If the file is already being loaded (e.g. preloaded) then 
+	 * wait for that instead of loading it again.
+	 * 
+	 * @return null if the file can't be loaded else the PImage object
+	 */
+	private static PImage fetch(PApplet app, String filename){
+		FutureTask<PImage> task = null;
+		Future<PImage> future;
+		synchronized(ImageManager.class){
+			Entry entry = textures.get(filename);
+			if(entry != null){
+				nbrHits++;
+				return entry.image;
+			}
+			future = pending.get(filename);
+			if(future == null){
+				nbrMisses++;
+				task = new FutureTask<PImage>(new Loader(app, filename, false));
+				pending.put(filename, task);
+				future = task;
+			}
+		}
+		if(task != null)
+			task.run();
+		boolean interrupted = false;
+		try {
+			while(true){
+				try {
+					return future.get();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+				catch (ExecutionException e) {
+					return null;
+				}
+				catch (CancellationException e) {
+					// The preload was cancelled so load it now
+					removePending(filename, future);
+					return fetch(app, filename);
+				}
+			}
+		}
+		finally {
+			if(interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Task to load an image in the background and add it to the cache.
+	 */
+	private static class Loader implements Callable<PImage> {
+		final PApplet app;
+		final String filename;
+		final boolean preload;
+
+		Loader(PApplet app, String filename, boolean preload){
+			this.app = app;
+			this.filename = filename;
+			this.preload = preload;
+		}
+
+		public PImage call(){
+			PImage image = null;
+			try {
+				image = app.loadImage(filename);
+			}
+			finally {
+				synchronized(ImageManager.class){
+					pending.remove(filename);
+					if(image != null && !textures.containsKey(filename)){
+						Entry entry = put(filename, new Entry(image));
+						// Keep preloaded images until they are used
+						entry.pinned = preload;
+						trim(entry);
+					}
+				}
+			}
+			if(image == null)
+				PApplet.println("Unable to load image from file '" + filename+"'");
+			return image;
+		}
+	}
+
 	/**
 	 * Load a single bitmap file return a reference to the PImage created.
+	 * The image is shared and must not be changed.
 	 * 
 	 * @param app
 	 * @param filename
 	 * @return null if the file does not exist else the PImage object
 	 */
 	public static PImage loadImage(PApplet app, String filename){
-		if(textures.containsKey(filename)){
-			return textures.get(filename);
+		PImage image = fetch(app, filename);
+		synchronized(ImageManager.class){
+			Entry entry = getEntry(filename, image);
+			if(entry != null)
+				entry.pinned = false;
+			trim();
+			return (entry == null) ? null : entry.image;
 		}
-		PImage image = app.loadImage(filename);
-		if(image != null){
-			textures.put(filename, image);
+	}
+
+	/**
+	 * Load an image for a control. The image is kept in the cache until the
+	 * control is disposed of.
+	 * 
+	 * @param owner the control using the image
+	 * @param filename
+	 * @return null if the file does not exist else the PImage object
+	 */
+	static PImage loadImage(GAbstractControl owner, String filename){
+		PImage image = fetch(owner.winApp, filename);
+		synchronized(ImageManager.class){
+			Entry entry = getEntry(filename, image);
+			if(entry == null)
+				return null;
+			// Claim the image before trimming so it can't be evicted
+			image = addRef(owner, filename, entry);
+			trim();
+			return image;
 		}
-		else
-			PApplet.println("Unable to load image from file '" + filename+"'");
-		return image;
 	}
-	
+
+	/**
+	 * Get an image of a particular size for a control. If the image is not
+	 * the right size a resized copy is made (the original is not changed).
+	 * The image is kept in the cache until the control is disposed of.
+	 * 
+	 * @param owner the control using the image
+	 * @param filename
+	 * @param w the image width required
+	 * @param h the image height required
+	 * @return null if the file does not exist else the PImage object
+	 */
+	static PImage loadImage(GAbstractControl owner, String filename, int w, int h){
+		PImage image = fetch(owner.winApp, filename);
+		synchronized(ImageManager.class){
+			Entry entry = getEntry(filename, image);
+			if(entry == null)
+				return null;
+			if(entry.image.width == w && entry.image.height == h)
+				image = addRef(owner, filename, entry);
+			else {
+				String key = filename + "@" + w + "x" + h;
+				Entry scaled = textures.get(key);
+				if(scaled == null){
+					image = entry.image.get();
+					image.resize(w, h);
+					scaled = put(key, new Entry(image));
+				}
+				image = addRef(owner, key, scaled);
+			}
+			// Claim the image before trimming so it can't be evicted
+			trim();
+			return image;
+		}
+	}
+
+	/**
+	 * Release all the images used by a control. This is called when the 
+	 * control is disposed of.
+	 * 
+	 * @param owner the control
+	 */
+	static synchronized void release(GAbstractControl owner){
+		if(owner.imageKeys == null)
+			return;
+		for(String key : owner.imageKeys){
+			Entry entry = textures.get(key);
+			if(entry != null && entry.refs > 0)
+				entry.refs--;
+		}
+		owner.imageKeys = null;
+		trim();
+	}
+
+	/**
+	 * Get the cache entry for an image file after it has been fetched. If the
+	 * entry was evicted before it could be claimed then put it back.
+	 */
+	private static Entry getEntry(String filename, PImage image){
+		Entry entry = textures.get(filename);
+		if(entry == null && image != null)
+			entry = put(filename, new Entry(image));
+		return entry;
+	}
+
+	private static Entry put(String key, Entry entry){
+		textures.put(key, entry);
+		nbrBytes += entry.bytes;
+		return entry;
+	}
+
+	private static PImage addRef(GAbstractControl owner, String key, Entry entry){
+		if(owner.imageKeys == null)
+			owner.imageKeys = new ArrayList<String>(3);
+		// Only count each image once per control
+		if(!owner.imageKeys.contains(key)){
+			owner.imageKeys.add(key);
+			entry.refs++;
+		}
+		entry.pinned = false;
+		return entry.image;
+	}
+
+	/**
+	 * Forget the least recently used images that are not being used by a 
+	 * control until the cache is within its size limit. 
+	 */
+	private static void trim(){
+		trim(null);
+	}
+
+	/**
+	 * As trim() but never forget the given entry, used for an image that has
+	 * just been loaded and not claimed yet.
+	 */
+	private static void trim(Entry keep){
+		Iterator<Entry> iter = textures.values().iterator();
+		while(nbrBytes > maxBytes && iter.hasNext()){
+			Entry entry = iter.next();
+			if(entry.refs == 0 && !entry.pinned && entry != keep){
+				iter.remove();
+				nbrBytes -= entry.bytes;
+				nbrEvicted++;
+			}
+		}
+	}
+
+	/**
+	 * Set the maximum amount of memory to use for cached images. Images being
+	 * used by controls, or preloaded and not used yet, are never removed from 
+	 * the cache so the cache may exceed this size. <br>
+	 * The default is 64Mb.
+	 * 
+	 * @param bytes the maximum size in bytes
+	 */
+	public static synchronized void setCacheSize(long bytes){
+		maxBytes = Math.max(0, bytes);
+		trim();
+	}
+
+	/**
+	 * @return the number of images in the cache
+	 */
+	public static synchronized int getNbrImages(){
+		return textures.size();
+	}
+
+	/**
+	 * @return the memory used by the cached images in bytes
+	 */
+	public static synchronized long getCacheBytes(){
+		return nbrBytes;
+	}
+
+	/**
+	 * @return the number of image requests found in the cache
+	 */
+	public static synchronized long getNbrHits(){
+		return nbrHits;
+	}
+
+	/**
+	 * @return the number of image requests that had to load the file
+	 */
+	public static synchronized long getNbrMisses(){
+		return nbrMisses;
+	}
+
+	/**
+	 * @return the number of images removed to keep within the size limit
+	 */
+	public static synchronized long getNbrEvicted(){
+		return nbrEvicted;
+	}
+
 	/**
 	 * Load images from multiple files
 	 * @param app
@@ -53,9 +493,52 @@ public class ImageManager {
 	
 	
 	
+	/**
+	 * Split an image into tiles without copying any pixels. This method creates
+	 * a 2D array (size [nCols, nRows] ) of tiles that are drawn from the 
+	 * original image.
+	 * 
+	 * @param img the tiled image
+	 * @param nCols number of tiles across
+	 * @param nRows number of tiles down
+	 * @return a 2D array of tiles
+	 */
+	public static ImageTile[][] makeTileViews2D(PImage img, int nCols, int nRows){
+		ImageTile[][] imageTiles = new ImageTile[nCols][nRows];
+		int tileW = img.width / nCols;
+		int tileH = img.height / nRows;
+		for(int y = 0; y < nRows; y++)
+			for(int x = 0; x < nCols; x++)
+				imageTiles[x][y] = new ImageTile(img, x * tileW, y * tileH, tileW, tileH);
+		return imageTiles;
+	}
+
+	/**
+	 * Split an image into tiles without copying any pixels. This method creates
+	 * a 1D array of tiles that are drawn from the original image. The order is 
+	 * left-right and top-down.
+	 * 
+	 * @param img the tiled image
+	 * @param nCols number of tiles across
+	 * @param nRows number of tiles down
+	 * @return a 1D array of tiles
+	 */
+	public static ImageTile[] makeTileViews1D(PImage img, int nCols, int nRows){
+		ImageTile[] imageTiles = new ImageTile[nCols * nRows];
+		int tileW = img.width / nCols;
+		int tileH = img.height / nRows;
+		int tileNo = 0;
+		for(int y = 0; y < nRows; y++)
+			for(int x = 0; x < nCols; x++)
+				imageTiles[tileNo++] = new ImageTile(img, x * tileW, y * tileH, tileW, tileH);
+		return imageTiles;
+	}
+
 	/**
 	 * Make multiple images from a given image. This method creates
-	 * a 2D array (size [nCols, nRows] ) of PImage objects.
+	 * a 2D array (size [nCols, nRows] ) of PImage objects. <br>
+	 * Each tile is a copy, use makeTileViews2D if the tiles are not
+	 * going to be changed.
 	 * 
 	 * @param app
 	 * @param img the tiled image
@@ -78,7 +561,9 @@ public class ImageManager {
 	
 	/**
 	 * Make multiple images from a given image. This method creates
-	 * a 1D array of PImage objects. The order is left-right and top-down.
+	 * a 1D array of PImage objects. The order is left-right and top-down. <br>
+	 * Each tile is a copy, use makeTileViews1D if the tiles are not
+	 * going to be changed.
 	 * 
 	 * @param app
 	 * @param img the tiled image
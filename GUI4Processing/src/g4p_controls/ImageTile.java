@@ -0,0 +1,96 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+package g4p_controls;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * A rectangular part (tile) of an image. <br>
+ * 
+ * The tile does not have its own pixels, it is drawn directly from the 
+ * source image so a sprite sheet split into tiles is only held once. If 
+ * a tile is to be changed use toImage() to get a copy.
+ * 
+ * @author Peter Lager
+ *
+ */
+public final class ImageTile {
+
+	/** The image this tile is part of */
+	public final PImage source;
+	/** The position and size of the tile in the source image */
+	public final int x, y, width, height;
+
+	/**
+	 * Create a tile from part of an image.
+	 * 
+	 * @param source the source image
+	 * @param x left edge of tile
+	 * @param y top edge of tile
+	 * @param width tile width
+	 * @param height tile height
+	 */
+	public ImageTile(PImage source, int x, int y, int width, int height){
+		this.source = source;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Draw the tile in a sketch. The position is interpreted using the 
+	 * current imageMode (CORNER or CENTER).
+	 * 
+	 * @param app the PApplet to draw on
+	 * @param px horizontal position
+	 * @param py vertical position
+	 */
+	public void draw(PApplet app, float px, float py){
+		app.image(source, px, py, width, height, x, y, x + width, y + height);
+	}
+
+	/**
+	 * Draw the tile on a graphics context. The position is interpreted using  
+	 * the current imageMode (CORNER or CENTER).
+	 * 
+	 * @param g the graphics context to draw on
+	 * @param px horizontal position
+	 * @param py vertical position
+	 */
+	public void draw(PGraphics g, float px, float py){
+		g.image(source, px, py, width, height, x, y, x + width, y + height);
+	}
+
+	/**
+	 * Get a copy of the tile as a separate image.
+	 * 
+	 * @return a new image
+	 */
+	public PImage toImage(){
+		return source.get(x, y, width, height);
+	}
+}
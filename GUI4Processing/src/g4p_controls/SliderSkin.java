@@ -0,0 +1,273 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+package g4p_controls;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+/**
+ * The images used to draw a GCustomSlider. <br>
+ * 
+ * Skins are loaded once and shared by every slider that uses them. The 
+ * registry is keyed on the skin name and the sketch requesting it so a skin 
+ * in the sketch's data folder is not confused with a library skin of the same 
+ * name. The tiled centre image is also cached for each track length. <br>
+ * 
+ * All the methods are thread safe so skins can be preloaded in the background.
+ * The images are loaded outside the registry lock so getting a skin that is 
+ * already loaded does not wait for another skin being loaded.
+ * 
+ * @author Peter Lager
+ *
+ */
+final class SliderSkin implements GConstantsInternal {
+
+	// Skins loaded or being loaded
+	private static final HashMap<String, FutureTask<SliderSkin>> skins = new HashMap<String, FutureTask<SliderSkin>>();
+
+	final String name;
+	final PImage leftEnd, rightEnd, thumb, thumb_mouseover;
+	// The centre image before it is tiled
+	private final PImage centre;
+	// Tiled centre images for each track length
+	private final HashMap<Integer, PImage> centres = new HashMap<Integer, PImage>();
+
+	private SliderSkin(String name, PImage[] images){
+		this.name = name;
+		centre = images[0];
+		leftEnd = images[1];
+		rightEnd = images[2];
+		thumb = images[3];
+		thumb_mouseover = images[4];
+	}
+
+	/**
+	 * Get a skin, loading it if this is the first time it has been asked for. 
+	 * If the skin can't be loaded the default skin is used instead.
+	 * 
+	 * @param app the PApplet used to load the images
+	 * @param style the skin name
+	 * @return the skin to use
+	 */
+	static SliderSkin get(final PApplet app, final String style){
+		String key = style + "@" + app.sketchPath("");
+		FutureTask<SliderSkin> task;
+		boolean loadHere = false;
+		synchronized(skins){
+			task = skins.get(key);
+			if(task == null){
+				task = new FutureTask<SliderSkin>(new Callable<SliderSkin>(){
+					public SliderSkin call(){
+						return load(app, style);
+					}
+				});
+				skins.put(key, task);
+				loadHere = true;
+			}
+		}
+		// Load the images without holding the lock
+		if(loadHere)
+			task.run();
+		boolean interrupted = false;
+		try {
+			while(true){
+				try {
+					return task.get();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+				catch (ExecutionException e) {
+					// Forget the failed attempt so the skin is loaded again
+					synchronized(skins){
+						if(skins.get(key) == task)
+							skins.remove(key);
+					}
+					Throwable cause = e.getCause();
+					if(cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if(cause instanceof Error)
+						throw (Error) cause;
+					throw new RuntimeException(cause);
+				}
+			}
+		}
+		finally {
+			if(interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Get the centre image tiled to fill the track length.
+	 */
+	synchronized PImage getCentre(PApplet app, int tl){
+		PImage img = centres.get(tl);
+		if(img == null){
+			PGraphics pg = app.createGraphics(tl, centre.height, PApplet.JAVA2D);
+			int rem = tl % centre.width;
+			int n = tl / centre.width;
+			n = (rem == 0) ? n : n + 1;
+			int px = (tl - centre.width * n)/2;
+			pg.beginDraw();
+			pg.background(pg.color(255,0));
+			pg.imageMode(PApplet.CORNER);
+			while(px < tl){
+				pg.image(centre, px, 0);
+				px += centre.width;
+			}
+			pg.endDraw();
+			img = pg;
+			centres.put(tl, img);
+		}
+		return img;
+	}
+
+	/**
+	 * Get the track width for this skin.
+	 */
+	int getTrackWidth(){
+		return centre.height;
+	}
+
+	/**
+	 * Load a skin
+	 * @param style
+	 */
+	private static SliderSkin load(PApplet app, String style){
+		PImage[] images;
+		// First check for user defined skin
+		// See if we are running in a browser or running locally
+		if(app.sketchPath("").length() == 0)
+			images = loadSkin_AppletInBrowser(app, style);	// browser
+		else
+			images = loadStyle_FromSketch(app, style);		// local
+		if(images != null)
+			return new SliderSkin(style, images);
+		// If not found load it from the library
+		String style_used = (SLIDER_STYLES.indexOf("|"+style+"|") >= 0) ? style : DEFAULT_SLIDER_STYLE;
+		// See if we have had to use a different skin. If true then 
+		// the original skin could not be found so say so 
+		if(!style.equalsIgnoreCase(style_used))
+			System.out.println("Unable to load the skin " + style + " using default '" + DEFAULT_SLIDER_STYLE + "' style instead");
+		return new SliderSkin(style_used, loadStyle_FromG4P(app, style_used));
+	}
+
+	/**
+	 * Load a style from the G4P library.
+	 * @param style
+	 */
+	private static PImage[] loadStyle_FromG4P(PApplet app, String style) {
+		// All the library styles use png graphics
+		return new PImage[] {
+				app.loadImage(style + "/centre.png"),
+				app.loadImage(style + "/end_left.png"),
+				app.loadImage(style + "/end_right.png"),
+				app.loadImage(style +"/handle.png"),
+				app.loadImage(style +"/handle_mouseover.png")
+		};
+	}
+
+	/**
+	 * Load a skin when run as an application or run locally.
+	 * 
+	 * @param style
+	 * @return the images or null if the style could not be loaded
+	 */
+	private static PImage[] loadStyle_FromSketch(PApplet app, String style) {
+		// First attempt to locate the style inside the sketch or sketch data folders
+		File styleFolder = new File(app.dataPath(style));
+		if(!styleFolder.exists())
+			styleFolder = new File(app.sketchPath(style));
+		// If the style is in the sketch then attempt to load the style
+		// and if successful we are done
+		if(!styleFolder.exists())
+			return null;
+
+		int fcount = 0;
+		String[] names = new String[] { "centre.", "end_left.", "end_right.", "handle.", "handle_mouseover." };
+		PImage[] images = new PImage[names.length];
+		File[] fileList = styleFolder.listFiles();
+		for(int i = 0; i < names.length; i++){
+			for(File f : fileList){
+				String filename = f.getName();
+				if(filename.startsWith(names[i])){
+					images[i] = app.loadImage(style + "/" + filename);
+					fcount ++;
+				}
+			}
+		}
+		return (fcount == names.length) ? images : null;
+	}
+
+	/**
+	 * Load a skin when run as an applet inside a browser.
+	 * 
+	 * Note: sketchPath() is null when inside a browswer.
+	 * 
+	 * @param style
+	 * @return the images or null if the style could not be loaded
+	 */
+	private static PImage[] loadSkin_AppletInBrowser(PApplet app, String style){
+		String[] names = new String[] { "centre", "end_left", "end_right", "handle", "handle_mouseover" };
+		PImage[] images = new PImage[names.length];
+		for(int i = 0; i < names.length; i++){
+			images[i] = app.loadImage(style + "/" + names[i] + ".png");
+			if(images[i] == null)
+				images[i] = app.loadImage(style + "/" + names[i] + ".jpg");
+			// See if we have problems with the skin files
+			if(images[i] == null){
+				System.out.println("Unable to load the skin " + style + " check the ");
+				System.out.println("skin name used and ensure all the image files are present.");
+				return null;
+			}
+		}
+		return images;
+	}
+
+	/**
+	 * Load a number of skins in a background thread.
+	 * 
+	 * @param app the PApplet used to load the images
+	 * @param styles the skin names
+	 */
+	static void preload(final PApplet app, final String... styles){
+		Thread t = new Thread(new Runnable(){
+			public void run(){
+				for(String style : styles)
+					if(style != null)
+						get(app, style.trim());
+			}
+		}, "G4P skin preloader");
+		t.setDaemon(true);
+		t.start();
+	}
+}
@@ -0,0 +1,191 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+package g4p_controls;
+
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the display area of a window used as a broad-phase
+ * filter when dispatching mouse events. <br>
+ *
+ * Each control is stored in every cell overlapped by the axis aligned bounding
+ * box of the control in world (i.e. display) coordinates. A point query only
+ * has to look in one cell and the controls are kept in the same order as
+ * they were added so the dispatch order is unchanged. <br>
+ *
+ * Controls outside the display area are clamped to the edge cells.
+ *
+ * @author Peter Lager
+ *
+ */
+final class SpatialGrid {
+
+	// Size of each (square) cell in pixels
+	static final int CELL_SIZE = 64;
+	// Extra space around each control to allow for rounding errors
+	static final float PAD = 2;
+
+	private GAbstractControl[] controls = new GAbstractControl[0];
+	// World space bounds [minX, minY, maxX, maxY] for each control
+	private float[] bounds = new float[0];
+	private int nbrControls = 0;
+
+	private int nbrCols = 1, nbrRows = 1;
+	// Indices of controls in each cell (in ascending order)
+	private int[][] cells = new int[1][4];
+	private int[] cellSize = new int[1];
+
+	// Reused for transform calculations
+	private final double[] corners = new double[8];
+
+	/**
+	 * Rebuild the grid to cover the display area.
+	 *
+	 * @param list the controls to index in dispatch order
+	 * @param dispWidth display width
+	 * @param dispHeight display height
+	 */
+	void rebuild(Iterable<GAbstractControl> list, int dispWidth, int dispHeight){
+		// Clear old indices
+		for(int i = 0; i < nbrControls; i++){
+			controls[i].gridIndex = -1;
+			controls[i] = null;
+		}
+		nbrControls = 0;
+		int nc = Math.max(1, (dispWidth + CELL_SIZE - 1) / CELL_SIZE);
+		int nr = Math.max(1, (dispHeight + CELL_SIZE - 1) / CELL_SIZE);
+		if(nc != nbrCols || nr != nbrRows){
+			nbrCols = nc;
+			nbrRows = nr;
+			cells = new int[nbrCols * nbrRows][4];
+			cellSize = new int[nbrCols * nbrRows];
+		}
+		else
+			Arrays.fill(cellSize, 0);
+		for(GAbstractControl control : list){
+			if((control.registeredMethods & GConstantsInternal.MOUSE_METHOD) == 0)
+				continue;
+			add(control);
+		}
+	}
+
+	/**
+	 * Add a control to the grid.
+	 */
+	private void add(GAbstractControl control){
+		if(nbrControls == controls.length){
+			int size = Math.max(16, 2 * controls.length);
+			controls = Arrays.copyOf(controls, size);
+			bounds = Arrays.copyOf(bounds, 4 * size);
+		}
+		int idx = nbrControls++;
+		controls[idx] = control;
+		control.gridIndex = idx;
+		// Calculate the world space bounds of the control
+		AffineTransform aff = control.getWorldTransform();
+		float hw = control.halfWidth, hh = control.halfHeight;
+		corners[0] = -hw; corners[1] = -hh;
+		corners[2] = hw;  corners[3] = -hh;
+		corners[4] = hw;  corners[5] = hh;
+		corners[6] = -hw; corners[7] = hh;
+		aff.transform(corners, 0, corners, 0, 4);
+		double x0 = corners[0], x1 = corners[0], y0 = corners[1], y1 = corners[1];
+		for(int i = 2; i < 8; i += 2){
+			x0 = Math.min(x0, corners[i]);
+			x1 = Math.max(x1, corners[i]);
+			y0 = Math.min(y0, corners[i+1]);
+			y1 = Math.max(y1, corners[i+1]);
+		}
+		int b = 4 * idx;
+		bounds[b] = (float)x0 - PAD;
+		bounds[b+1] = (float)y0 - PAD;
+		bounds[b+2] = (float)x1 + PAD;
+		bounds[b+3] = (float)y1 + PAD;
+		// Add to every overlapped cell
+		int c0 = col(bounds[b]), c1 = col(bounds[b+2]);
+		int r0 = row(bounds[b+1]), r1 = row(bounds[b+3]);
+		for(int r = r0; r <= r1; r++){
+			for(int c = c0; c <= c1; c++){
+				int cell = r * nbrCols + c;
+				if(cellSize[cell] == cells[cell].length)
+					cells[cell] = Arrays.copyOf(cells[cell], 2 * cells[cell].length);
+				cells[cell][cellSize[cell]++] = idx;
+			}
+		}
+	}
+
+	private int col(float px){
+		int c = (int)Math.floor(px / CELL_SIZE);
+		return (c < 0) ? 0 : (c >= nbrCols) ? nbrCols - 1 : c;
+	}
+
+	private int row(float py){
+		int r = (int)Math.floor(py / CELL_SIZE);
+		return (r < 0) ? 0 : (r >= nbrRows) ? nbrRows - 1 : r;
+	}
+
+	/**
+	 * Find the controls whose bounds contain the given position.
+	 *
+	 * @param px display x position
+	 * @param py display y position
+	 * @param result array to store the grid indices (in ascending order)
+	 * @return the number of indices stored in result
+	 */
+	int query(float px, float py, int[] result){
+		int cell = row(py) * nbrCols + col(px);
+		int[] list = cells[cell];
+		int n = 0;
+		for(int i = 0; i < cellSize[cell] && n < result.length; i++){
+			int b = 4 * list[i];
+			if(px >= bounds[b] && py >= bounds[b+1] && px <= bounds[b+2] && py <= bounds[b+3])
+				result[n++] = list[i];
+		}
+		return n;
+	}
+
+	/**
+	 * Get the control for a grid index.
+	 */
+	GAbstractControl get(int idx){
+		return controls[idx];
+	}
+
+	/**
+	 * See if a control is in this grid.
+	 */
+	boolean contains(GAbstractControl control){
+		if(control == null) return false;
+		int idx = control.gridIndex;
+		return idx >= 0 && idx < nbrControls && controls[idx] == control;
+	}
+
+	/**
+	 * @return the number of controls in the grid
+	 */
+	int size(){
+		return nbrControls;
+	}
+}
@@ -605,7 +605,7 @@ final public class StyledString implements GConstantsInternal, Serializable {
 	 * @param g2d Graphics2D display context
 	 * @return a list of text layouts for rendering
 	 */
-	public LinkedList<TextLayoutInfo> getLines(Graphics2D g2d){
+	public synchronized LinkedList<TextLayoutInfo> getLines(Graphics2D g2d){
 		if(font != g2d.getFont()){
 			setFont(g2d.getFont());
 			invalidText = true;
@@ -618,7 +618,8 @@ final public class StyledString implements GConstantsInternal, Serializable {
 			invalidLayout = true;
 		}
 		if(invalidLayout){
-			linesInfo.clear();
+			// Use a new list so a list returned earlier is not changed
+			linesInfo = new LinkedList<TextLayoutInfo>();
 			if(plainText.length() > 0){
 				textHeight = 0;
 				maxLineLength = 0;
@@ -715,7 +716,7 @@ final public class StyledString implements GConstantsInternal, Serializable {
 		}
 	}
 
-	TextLayoutHitInfo calculateFromXY(Graphics2D g2d, float px, float py){
+	synchronized TextLayoutHitInfo calculateFromXY(Graphics2D g2d, float px, float py){
 		TextHitInfo thi = null;
 		TextLayoutInfo tli = null;
 		TextLayoutHitInfo tlhi = null;
@@ -0,0 +1,360 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+
+package g4p_controls;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PGraphicsJava2D;
+import processing.core.PImage;
+
+/**
+ * Packs the rendered images of many controls into a few large shared 
+ * images (pages) so that each control does not need to keep its own 
+ * off-screen buffer. <br>
+ * 
+ * A control draws itself into its own buffer while it is changing. Once
+ * the buffer has been unchanged for a few frames it is copied into the 
+ * control's slot in the atlas and released. The control is then displayed 
+ * by drawing its slot from the page image. <br>
+ * 
+ * Slots are allocated using shelf packing. When a slot is freed the space
+ * is only reused by a slot of the same height on the same shelf, so if 
+ * there is no room for a new slot and the pages are fragmented then the 
+ * atlas is emptied and the controls are asked to draw themselves again. <br>
+ * 
+ * Controls larger than a page get a page of their own. <br>
+ * 
+ * For the JAVA2D renderer the pages are Java images drawn directly with the
+ * display's Graphics2D object, so storing a slot only changes the slot's 
+ * pixels. Other renderers use PImage pages and update only the slot's 
+ * rectangle.
+ * 
+ * @author Peter Lager
+ *
+ */
+final class TextureAtlas implements PConstants {
+
+	// Size of each page in pixels
+	static final int PAGE_SIZE = 512;
+	// Space between slots to stop neighbours bleeding when scaled or rotated
+	static final int PAD = 1;
+	// Repack if less than this fraction of the page area is in use
+	static final float REPACK_LEVEL = 0.5f;
+
+	/**
+	 * The area of a page used by one control.
+	 */
+	static final class Slot {
+		GAbstractControl owner;
+		Page page;
+		Shelf shelf;
+		int x, y, w, h;
+		// Size of the buffer last stored in this slot (including its pixels)
+		long bufferBytes;
+
+		/**
+		 * Draw the slot at the given position on the display.
+		 */
+		void draw(PApplet app, float px, float py){
+			if(page.awt == null){
+				app.image(page.image, px, py, w, h, x, y, x + w, y + h);
+				return;
+			}
+			// Also draw on any recorder as PApplet.image() would
+			if(app.recorder instanceof PGraphicsJava2D)
+				draw((PGraphicsJava2D) app.recorder, px, py);
+			draw((PGraphicsJava2D) app.g, px, py);
+		}
+
+		private void draw(PGraphicsJava2D pg, float px, float py){
+			Graphics2D g2 = pg.g2;
+			Composite old = null;
+			if(pg.tint && (pg.tintColor >>> 24) < 255){
+				old = g2.getComposite();
+				g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (pg.tintColor >>> 24) / 255f));
+			}
+			int dx = Math.round(px), dy = Math.round(py);
+			g2.drawImage(page.awt, dx, dy, dx + w, dy + h, x, y, x + w, y + h, null);
+			if(old != null)
+				g2.setComposite(old);
+		}
+	}
+
+	static final class Shelf {
+		int y, height;
+		// Position of next free space
+		int nextX = 0;
+		// Freed spaces that can be reused [x, width] pairs
+		int[] gaps = new int[8];
+		int nbrGaps = 0;
+
+		Shelf(int y, int height){
+			this.y = y;
+			this.height = height;
+		}
+	}
+
+	static final class Page {
+		final int width, height;
+		// Only one of these is used depending on the renderer
+		final PImage image;
+		final BufferedImage awt;
+		final ArrayList<Shelf> shelves = new ArrayList<Shelf>();
+		int nextY = 0;
+
+		Page(int w, int h, boolean java2D){
+			width = w;
+			height = h;
+			image = java2D ? null : new PImage(w, h, ARGB);
+			awt = java2D ? new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB) : null;
+		}
+	}
+
+	// True if the pages are drawn with Graphics2D
+	private final boolean java2D;
+
+	private final ArrayList<Page> pages = new ArrayList<Page>();
+	private final ArrayList<Slot> slots = new ArrayList<Slot>();
+	private long usedArea = 0;
+
+	/**
+	 * Create an atlas for a window.
+	 * 
+	 * @param app the window's PApplet
+	 */
+	TextureAtlas(PApplet app){
+		java2D = app.g instanceof PGraphicsJava2D;
+	}
+
+	/**
+	 * Copy a control's buffer into its slot, allocating or moving the slot 
+	 * if it is missing or the wrong size.
+	 * 
+	 * @param control the control owning the buffer
+	 * @param buffer the rendered image of the control
+	 * @return the slot holding the image
+	 */
+	Slot store(GAbstractControl control, PGraphics buffer){
+		int w = (int) control.width, h = (int) control.height;
+		Slot slot = control.atlasSlot;
+		if(slot == null || slot.w != w || slot.h != h){
+			if(slot != null)
+				free(slot);
+			slot = allocate(w, h);
+			if(slot == null){
+				repack();
+				slot = allocate(w, h);
+			}
+			slot.owner = control;
+			control.atlasSlot = slot;
+		}
+		// Copy the pixels into the page
+		buffer.loadPixels();
+		slot.bufferBytes = BufferPool.bytesUsed(buffer);
+		w = Math.min(w, buffer.width);
+		h = Math.min(h, buffer.height);
+		if(slot.page.awt != null)
+			slot.page.awt.setRGB(slot.x, slot.y, w, h, buffer.pixels, 0, buffer.width);
+		else {
+			PImage img = slot.page.image;
+			for(int row = 0; row < h; row++)
+				System.arraycopy(buffer.pixels, row * buffer.width, img.pixels, (slot.y + row) * img.width + slot.x, w);
+			img.updatePixels(slot.x, slot.y, w, h);
+		}
+		return slot;
+	}
+
+	/**
+	 * Find space for a new slot.
+	 * 
+	 * @return the slot or null if there is no room and the pages need repacking
+	 */
+	private Slot allocate(int w, int h){
+		int pw = w + PAD, ph = h + PAD;
+		if(pw > PAGE_SIZE || ph > PAGE_SIZE){
+			// Needs a page of its own
+			Page page = new Page(w, h, java2D);
+			pages.add(page);
+			Shelf shelf = new Shelf(0, h);
+			page.shelves.add(shelf);
+			page.nextY = h;
+			shelf.nextX = w;
+			return newSlot(page, shelf, 0, w, h);
+		}
+		// Look for a freed gap or room on an existing shelf
+		Page page = null;
+		Shelf best = null;
+		for(Page p : pages){
+			for(Shelf s : p.shelves){
+				if(s.height < ph || s.height > ph + ph / 2)
+					continue;
+				for(int i = 0; i < s.nbrGaps; i++){
+					if(s.gaps[2*i+1] >= pw){
+						int x = s.gaps[2*i];
+						s.gaps[2*i] += pw;
+						s.gaps[2*i+1] -= pw;
+						if(s.gaps[2*i+1] == 0){
+							s.nbrGaps--;
+							s.gaps[2*i] = s.gaps[2*s.nbrGaps];
+							s.gaps[2*i+1] = s.gaps[2*s.nbrGaps+1];
+						}
+						return newSlot(p, s, x, w, h);
+					}
+				}
+				if(p.width - s.nextX >= pw && (best == null || s.height < best.height)){
+					page = p;
+					best = s;
+				}
+			}
+		}
+		if(best != null){
+			int x = best.nextX;
+			best.nextX += pw;
+			return newSlot(page, best, x, w, h);
+		}
+		// Start a new shelf
+		for(Page p : pages){
+			if(p.width == PAGE_SIZE && p.height - p.nextY >= ph){
+				Shelf s = new Shelf(p.nextY, ph);
+				p.shelves.add(s);
+				p.nextY += ph;
+				s.nextX = pw;
+				return newSlot(p, s, 0, w, h);
+			}
+		}
+		// Need a new page, but repack first if the existing pages are mostly empty
+		if(!pages.isEmpty() && getOccupancy() < REPACK_LEVEL)
+			return null;
+		Page p = new Page(PAGE_SIZE, PAGE_SIZE, java2D);
+		pages.add(p);
+		Shelf s = new Shelf(0, ph);
+		p.shelves.add(s);
+		p.nextY = ph;
+		s.nextX = pw;
+		return newSlot(p, s, 0, w, h);
+	}
+
+	private Slot newSlot(Page page, Shelf shelf, int x, int w, int h){
+		Slot slot = new Slot();
+		slot.page = page;
+		slot.shelf = shelf;
+		slot.x = x;
+		slot.y = shelf.y;
+		slot.w = w;
+		slot.h = h;
+		slots.add(slot);
+		usedArea += w * h;
+		return slot;
+	}
+
+	/**
+	 * Release the space used by a slot.
+	 */
+	void free(Slot slot){
+		if(!slots.remove(slot))
+			return;
+		usedArea -= slot.w * slot.h;
+		if(slot.owner != null && slot.owner.atlasSlot == slot)
+			slot.owner.atlasSlot = null;
+		slot.owner = null;
+		Shelf s = slot.shelf;
+		if(s.nbrGaps * 2 == s.gaps.length)
+			s.gaps = Arrays.copyOf(s.gaps, 2 * s.gaps.length);
+		s.gaps[2 * s.nbrGaps] = slot.x;
+		s.gaps[2 * s.nbrGaps + 1] = slot.w + PAD;
+		s.nbrGaps++;
+		// Drop pages of their own as soon as they are empty
+		if(slot.page.width != PAGE_SIZE || slot.page.height != PAGE_SIZE)
+			pages.remove(slot.page);
+	}
+
+	/**
+	 * Empty the atlas. The controls that had slots will draw themselves 
+	 * again and be given new slots.
+	 */
+	void repack(){
+		for(Slot slot : slots){
+			if(slot.owner != null){
+				slot.owner.atlasSlot = null;
+				slot.owner.bufferInvalid = true;
+			}
+		}
+		slots.clear();
+		pages.clear();
+		usedArea = 0;
+	}
+
+	/**
+	 * Remove all slots and pages.
+	 */
+	void dispose(){
+		repack();
+	}
+
+	/**
+	 * @return the fraction of the page area used by controls (0.0 - 1.0)
+	 */
+	float getOccupancy(){
+		long area = getPageArea();
+		return (area == 0) ? 0 : (float)((double)usedArea / area);
+	}
+
+	/**
+	 * The number of bytes saved compared with each control keeping its own 
+	 * off-screen buffer, i.e. the size of the buffers released after being 
+	 * stored (controls that are changing keep their buffer) less the size of
+	 * the pages.
+	 */
+	long getBytesSaved(){
+		long released = 0;
+		for(Slot slot : slots)
+			if(slot.owner != null && slot.owner.buffer == null)
+				released += slot.bufferBytes;
+		return Math.max(0, released - 4 * getPageArea());
+	}
+
+	int getNbrPages(){
+		return pages.size();
+	}
+
+	int getNbrSlots(){
+		return slots.size();
+	}
+
+	private long getPageArea(){
+		long area = 0;
+		for(Page p : pages)
+			area += p.width * p.height;
+		return area;
+	}
+}
@@ -0,0 +1,326 @@
+/*
+  Part of the GUI for Processing library
+  	http://www.lagers.org.uk/g4p/index.html
+	http://gui4processing.googlecode.com/svn/trunk/
+
+  Copyright (c) 2008-13 Peter Lager
+
+  This library is free software; you can redistribute it and/or
+  modify it under the terms of the GNU Lesser General Public
+  License as published by the Free Software Foundation; either
+  version 2.1 of the License, or (at your option) any later version.
+
+  This library is distributed in the hope that it will be useful,
+  but WITHOUT ANY WARRANTY; without even the implied warranty of
+  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+  Lesser General Public License for more details.
+
+  You should have received a copy of the GNU Lesser General
+  Public License along with this library; if not, write to the
+  Free Software Foundation, Inc., 59 Temple Place, Suite 330,
+  Boston, MA  02111-1307  USA
+ */
+
+
+package g4p_controls;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list of controls kept in z-order, the order they are drawn. <br>
+ * 
+ * Controls are ordered by their z value and then by their y position 
+ * (lower controls first). Controls with the same z value and y position
+ * are kept in the order they were added. The z and y values are remembered 
+ * when the control is added so the ordering uses plain int comparisons. If 
+ * either changes later the control should be removed and added again. <br>
+ * 
+ * The controls are kept in an array. The insertion point is found with a 
+ * binary search, O(log n), but inserting or removing a control in the 
+ * middle of the list has to move the controls after it, O(n). Adding a 
+ * control that comes after all the others (the usual case when building a 
+ * GUI) does not move anything so building a GUI is linear in the number of 
+ * controls. Use removeAll to remove many controls in a single pass. <br>
+ * 
+ * This is a List so code written for the LinkedList previously used for 
+ * child controls still works, but since the position of a control is decided 
+ * by its z-order, the methods that add or set a control at a given index are
+ * not supported.
+ * 
+ * @author Peter Lager
+ *
+ */
+public final class ZOrderList extends AbstractList<GAbstractControl> {
+
+	private GAbstractControl[] controls;
+	// Ordering keys remembered when each control was added
+	private int[] zKeys, yKeys;
+	private int size = 0;
+
+	public ZOrderList(){
+		this(8);
+	}
+
+	public ZOrderList(int capacity){
+		capacity = Math.max(1, capacity);
+		controls = new GAbstractControl[capacity];
+		zKeys = new int[capacity];
+		yKeys = new int[capacity];
+	}
+
+	/**
+	 * Add a control in z-order after any controls with the same z and y values.
+	 * @param control the control to add
+	 * @return true
+	 */
+	public boolean add(GAbstractControl control){
+		int zk = control.z, yk = -(int)control.y;
+		int idx = (size == 0 || compare(zk, yk, size - 1) >= 0) ? size : upperBound(zk, yk);
+		if(size == controls.length){
+			int capacity = 2 * controls.length;
+			controls = Arrays.copyOf(controls, capacity);
+			zKeys = Arrays.copyOf(zKeys, capacity);
+			yKeys = Arrays.copyOf(yKeys, capacity);
+		}
+		if(idx < size){
+			System.arraycopy(controls, idx, controls, idx + 1, size - idx);
+			System.arraycopy(zKeys, idx, zKeys, idx + 1, size - idx);
+			System.arraycopy(yKeys, idx, yKeys, idx + 1, size - idx);
+		}
+		controls[idx] = control;
+		zKeys[idx] = zk;
+		yKeys[idx] = yk;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Synonym for add, the control is still placed in z-order.
+	 */
+	public void addLast(GAbstractControl control){
+		add(control);
+	}
+
+	/**
+	 * Remove a control from the list.
+	 * @param control the control to remove
+	 * @return true if the control was in the list
+	 */
+	public boolean remove(Object control){
+		int idx = indexOf(control);
+		if(idx < 0)
+			return false;
+		removeAt(idx);
+		return true;
+	}
+
+	/**
+	 * Remove the control at a position in the list.
+	 * @param idx the position
+	 * @return the control removed
+	 */
+	public GAbstractControl remove(int idx){
+		GAbstractControl control = get(idx);
+		removeAt(idx);
+		return control;
+	}
+
+	/**
+	 * Remove all the controls in a collection. This takes a single pass 
+	 * through the list so, if the collection is a set, it is much faster than
+	 * removing controls one at a time.
+	 * @param set the controls to remove
+	 * @return true if any controls were removed
+	 */
+	public boolean removeAll(Collection<?> set){
+		int n = 0;
+		for(int i = 0; i < size; i++){
+			if(set.contains(controls[i]))
+				continue;
+			if(n != i){
+				controls[n] = controls[i];
+				zKeys[n] = zKeys[i];
+				yKeys[n] = yKeys[i];
+			}
+			n++;
+		}
+		boolean removed = n < size;
+		Arrays.fill(controls, n, size, null);
+		size = n;
+		if(removed)
+			modCount++;
+		return removed;
+	}
+
+	/**
+	 * Remove and add a control so it is repositioned using its current
+	 * z value and y position. Does nothing if the control is not in the list.
+	 * @param control the control to reposition
+	 */
+	public void reorder(GAbstractControl control){
+		if(remove(control))
+			add(control);
+	}
+
+	/**
+	 * Recalculate the ordering keys for all controls from their current z 
+	 * value and y position and restore the z-order. Controls with equal 
+	 * keys stay in the same order.
+	 */
+	public void reorderAll(){
+		modCount++;
+		for(int i = 0; i < size; i++){
+			zKeys[i] = controls[i].z;
+			yKeys[i] = -(int)controls[i].y;
+		}
+		// Insertion sort since the list is usually in order already
+		for(int i = 1; i < size; i++){
+			GAbstractControl c = controls[i];
+			int zk = zKeys[i], yk = yKeys[i];
+			int j = i - 1;
+			while(j >= 0 && compare(zk, yk, j) < 0){
+				controls[j+1] = controls[j];
+				zKeys[j+1] = zKeys[j];
+				yKeys[j+1] = yKeys[j];
+				j--;
+			}
+			controls[j+1] = c;
+			zKeys[j+1] = zk;
+			yKeys[j+1] = yk;
+		}
+	}
+
+	private void removeAt(int idx){
+		int n = size - idx - 1;
+		if(n > 0){
+			System.arraycopy(controls, idx + 1, controls, idx, n);
+			System.arraycopy(zKeys, idx + 1, zKeys, idx, n);
+			System.arraycopy(yKeys, idx + 1, yKeys, idx, n);
+		}
+		controls[--size] = null;
+		modCount++;
+	}
+
+	/**
+	 * Find the position of a control in the list.
+	 * @param obj the control to find
+	 * @return the index or -1 if not in the list
+	 */
+	public int indexOf(Object obj){
+		if(!(obj instanceof GAbstractControl) || size == 0)
+			return -1;
+		GAbstractControl control = (GAbstractControl) obj;
+		// Look among the controls with the same keys first
+		int zk = control.z, yk = -(int)control.y;
+		for(int i = lowerBound(zk, yk); i < size && compare(zk, yk, i) == 0; i++)
+			if(controls[i] == control)
+				return i;
+		// Keys have changed since it was added
+		for(int i = 0; i < size; i++)
+			if(controls[i] == control)
+				return i;
+		return -1;
+	}
+
+	public boolean contains(Object control){
+		return indexOf(control) >= 0;
+	}
+
+	public GAbstractControl get(int idx){
+		if(idx < 0 || idx >= size)
+			throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+		return controls[idx];
+	}
+
+	public int size(){
+		return size;
+	}
+
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	public void clear(){
+		Arrays.fill(controls, 0, size, null);
+		size = 0;
+		modCount++;
+	}
+
+	private int compare(int zk, int yk, int idx){
+		if(zk != zKeys[idx])
+			return (zk < zKeys[idx]) ? -1 : 1;
+		if(yk != yKeys[idx])
+			return (yk < yKeys[idx]) ? -1 : 1;
+		return 0;
+	}
+
+	// First index with keys >= those given
+	private int lowerBound(int zk, int yk){
+		int lo = 0, hi = size;
+		while(lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if(compare(zk, yk, mid) > 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	// First index with keys > those given
+	private int upperBound(int zk, int yk){
+		int lo = 0, hi = size;
+		while(lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if(compare(zk, yk, mid) >= 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Iterates over the controls in z-order.
+	 */
+	public Iterator<GAbstractControl> iterator() {
+		return new Iterator<GAbstractControl>(){
+			private int next = 0;
+			private int last = -1;
+			private int expectedModCount = modCount;
+
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			public GAbstractControl next() {
+				checkForComodification();
+				if(next >= size)
+					throw new NoSuchElementException();
+				last = next++;
+				return controls[last];
+			}
+
+			public void remove() {
+				if(last < 0)
+					throw new IllegalStateException();
+				checkForComodification();
+				removeAt(last);
+				next = last;
+				last = -1;
+				expectedModCount = modCount;
+			}
+
+			private void checkForComodification() {
+				if(modCount != expectedModCount)
+					throw new ConcurrentModificationException();
+			}
+		};
+	}
+}